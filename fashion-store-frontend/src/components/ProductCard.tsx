@@ -1,5 +1,6 @@
 import { useNavigate } from 'react-router-dom';
 import type { Product } from '../services/api';
+import { imageSrc, imageSrcSet } from '../utils/productImage';
 
 interface ProductCardProps {
     product: Product;
@@ -45,7 +46,11 @@ const ProductCard = ({ product }: ProductCardProps) => {
             {/* Изображение */}
             <div className="position-relative overflow-hidden" style={{ height: '400px' }}>
                 <img
-                    src={product.imageUrl}
+                    src={imageSrc(product.imageUrl, 480)}
+                    srcSet={imageSrcSet(product.imageUrl)}
+                    sizes="(max-width: 767px) 100vw, (max-width: 1199px) 50vw, 25vw"
+                    loading="lazy"
+                    decoding="async"
                     className="card-img-top w-100 h-100 object-fit-cover transition-transform"
                     alt={product.name}
                     style={{
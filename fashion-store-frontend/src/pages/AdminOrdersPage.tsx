@@ -72,6 +72,44 @@ const AdminOrdersPage = () => {
         }
     }, [orders, statusFilter]);
 
+    // Живая лента заказов (SSE): новые заказы и смены статусов приходят без перезагрузки списка
+    useEffect(() => {
+        const token = localStorage.getItem('admin_token');
+        if (!token) return;
+
+        const source = new EventSource(`/api/admin/orders/stream?token=${encodeURIComponent(token)}`);
+
+        source.addEventListener('NEW_ORDER', async (event) => {
+            const { orderId } = JSON.parse((event as MessageEvent).data) as { orderId: number };
+            try {
+                const response = await fetch(`/api/admin/orders/${orderId}`, {
+                    headers: {
+                        'Authorization': `Bearer ${token}`
+                    },
+                });
+                if (!response.ok) return;
+
+                const newOrder = await response.json() as Order;
+                setOrders(prev => prev.some(order => order.id === newOrder.id) ? prev : [newOrder, ...prev]);
+            } catch (error) {
+                console.error('Error fetching new order:', error);
+            }
+        });
+
+        source.addEventListener('STATUS_CHANGED', (event) => {
+            const { orderId, status } = JSON.parse((event as MessageEvent).data) as { orderId: number; status: string };
+            setOrders(prev => prev.map(order => order.id === orderId ? { ...order, status } : order));
+            setSelectedOrder(prev => prev && prev.id === orderId ? { ...prev, status } : prev);
+        });
+
+        // Пропущенные события уже недоступны на сервере - перечитываем список целиком
+        source.addEventListener('RESYNC', () => {
+            fetchOrders();
+        });
+
+        return () => source.close();
+    }, []);
+
     const fetchOrders = async (status?: string) => {
         try {
             setRefreshing(true);
@@ -1,5 +1,6 @@
 import {useCart} from '../context/CartContext';
 import {Link, useNavigate} from 'react-router-dom';
+import {imageBackground} from '../utils/productImage';
 
 const CartPage = () => {
     const {items, removeFromCart, totalPrice, clearCart} = useCart();
@@ -64,7 +65,7 @@ const CartPage = () => {
                                     <div
                                         className="w-100 hover-lift"
                                         style={{
-                                            backgroundImage: `url(${item.product.imageUrl})`,
+                                            backgroundImage: imageBackground(item.product.imageUrl, 240),
                                             backgroundSize: 'cover',
                                             backgroundPosition: 'center',
                                             paddingBottom: '100%',
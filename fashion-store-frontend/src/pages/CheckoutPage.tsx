@@ -13,6 +13,7 @@ import CdekWidgetComponent from '../components/delivery/CdekWidgetComponent';
 
 // Импортируем тип из CdekWidgetComponent
 import type {CdekSelectedPoint} from '../components/delivery/CdekWidgetComponent';
+import {imageBackground} from '../utils/productImage';
 
 // Интерфейсы
 interface YandexDeliveryPoint {
@@ -511,7 +512,7 @@ const CheckoutPageContent = () => {
                                 <div key={item.variantId} className="d-flex mb-3 pb-3 border-bottom">
                                     <div className="product-image me-3" style={{
                                         width: '60px', height: '60px',
-                                        backgroundImage: `url(${item.product.imageUrl})`,
+                                        backgroundImage: imageBackground(item.product.imageUrl, 60),
                                         backgroundSize: 'cover', backgroundPosition: 'center',
                                         borderRadius: '6px'
                                     }}></div>
@@ -3,6 +3,7 @@ import { useState, useEffect } from 'react';
 import { useParams, useSearchParams, Link } from 'react-router-dom';
 import { orderService } from '../services/orderService';
 import type { OrderDetails } from '../services/orderService';
+import { imageBackground } from '../utils/productImage';
 
 const OrderPage = () => {
     const { orderId } = useParams<{ orderId: string }>();
@@ -142,7 +143,7 @@ const OrderPage = () => {
                                             <div className="order-item-image" style={{
                                                 width: '80px',
                                                 height: '80px',
-                                                backgroundImage: `url(${item.product.imageUrl})`,
+                                                backgroundImage: imageBackground(item.product.imageUrl, 80),
                                                 backgroundSize: 'cover',
                                                 backgroundPosition: 'center',
                                                 borderRadius: '8px'
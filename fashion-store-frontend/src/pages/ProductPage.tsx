@@ -6,6 +6,7 @@ import type {Product} from '../services/api';
 import ProductCard from '../components/ProductCard';
 import {Package, Ruler, Palette, Check} from 'lucide-react';
 import toast from 'react-hot-toast';
+import {imageBackground, imageSrc, imageSrcSet} from '../utils/productImage';
 
 interface CartProduct extends Product {
     selectedVariant?: {
@@ -257,17 +258,23 @@ const ProductPage = () => {
                     <div className="px-4 px-md-5 py-5">
                         <div className="main-image mb-4">
                             <div
-                                className="w-100"
+                                className="w-100 position-relative overflow-hidden"
                                 style={{
                                     backgroundColor: 'var(--cream-light)',
-                                    backgroundImage: `url(${allImages[selectedImage]})`,
-                                    backgroundSize: 'cover',
-                                    backgroundPosition: 'center',
                                     paddingBottom: '400px',
                                     cursor: 'zoom-in',
                                     border: '1px solid var(--cream-dark)'
                                 }}
-                            ></div>
+                            >
+                                <img
+                                    src={imageSrc(allImages[selectedImage], 960)}
+                                    srcSet={imageSrcSet(allImages[selectedImage])}
+                                    sizes="(max-width: 991px) 100vw, 50vw"
+                                    alt={product.name}
+                                    className="position-absolute top-0 start-0 w-100 h-100"
+                                    style={{ objectFit: 'cover', objectPosition: 'center' }}
+                                />
+                            </div>
                         </div>
 
                         {allImages.length > 1 && (
@@ -286,7 +293,7 @@ const ProductPage = () => {
                                         <div
                                             className="w-100 h-100"
                                             style={{
-                                                backgroundImage: `url(${img})`,
+                                                backgroundImage: imageBackground(img, 80),
                                                 backgroundSize: 'cover',
                                                 backgroundPosition: 'center',
                                                 border: '1px solid var(--cream-dark)'
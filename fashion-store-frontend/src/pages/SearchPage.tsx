@@ -2,6 +2,7 @@ import { useState, useEffect } from 'react';
 import { useLocation, useNavigate } from 'react-router-dom';
 import ProductCard from '../components/ProductCard';
 import { productService, type Product } from '../services/api';
+import { imageSrc, imageSrcSet } from '../utils/productImage';
 
 const SearchPage = () => {
     const location = useLocation();
@@ -218,7 +219,10 @@ const SearchPage = () => {
                                                     <div className="d-flex align-items-start">
                                                         <div className="me-3" style={{ minWidth: '80px' }}>
                                                             <img
-                                                                src={product.imageUrl}
+                                                                src={imageSrc(product.imageUrl, 160)}
+                                                                srcSet={imageSrcSet(product.imageUrl)}
+                                                                sizes="80px"
+                                                                loading="lazy"
                                                                 alt={product.name}
                                                                 className="img-fluid rounded"
                                                                 style={{
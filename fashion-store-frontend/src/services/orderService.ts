@@ -52,6 +52,28 @@ export interface OrderResponse {
     error?: string;
 }
 
+// Позиция повторного заказа: текущая цена и фактическое наличие (ReorderItemDTO.java)
+export interface ReorderItem {
+    productId: number;
+    productName: string;
+    imageUrl?: string;
+    quantity: number;
+    size?: string;
+    color?: string;
+    price: number;
+    previousPrice: number;
+    availableQuantity: number;
+    inStock: boolean;
+    priceChanged: boolean;
+}
+
+export interface ReorderResponse {
+    orderId: number;
+    items: ReorderItem[];
+    allInStock: boolean;
+    hasPriceChanges: boolean;
+}
+
 // Интерфейс для данных заказа с бэкенда
 export interface OrderDetails {
     id: number;
@@ -277,8 +299,8 @@ export const orderService = {
         }
     },
 
-    // Получить товары для повторного заказа
-    async getReorderItems(orderId: number, accessToken: string): Promise<unknown> {
+    // Получить товары для повторного заказа (наличие и цены уже проверены на сервере)
+    async getReorderItems(orderId: number, accessToken: string): Promise<ReorderResponse> {
         try {
             const response = await fetch(
                 `${API_BASE_URL}/api/public/orders/${orderId}/reorder?token=${accessToken}`
@@ -288,7 +310,7 @@ export const orderService = {
                 throw new Error(`Ошибка ${response.status}`);
             }
 
-            return await response.json();
+            return await response.json() as ReorderResponse;
         } catch (error) {
             console.error('Ошибка получения товаров для повторного заказа:', error);
             throw error;
@@ -0,0 +1,34 @@
+// Картинки товаров на витрине идут через /img: сервер отдает уменьшенную копию с диска
+// вместо оригинала из S3 в полный размер.
+// Ширины совпадают с ImageRenditionService.SIZES - другие сервер все равно округлит вверх до них
+const WIDTHS = [160, 480, 960, 1600];
+
+// products/abc.jpg из адреса в хранилище или images/products/... из статики; null - адрес не для /img
+const imageKey = (url?: string): string | null => {
+    if (!url) {
+        return null;
+    }
+    try {
+        const path = new URL(url, window.location.origin).pathname;
+        const match = path.match(/\/((?:products|images)\/[A-Za-z0-9_.\-/]+\.(?:jpe?g|png|gif|webp))$/i);
+        return match ? match[1] : null;
+    } catch {
+        return null;
+    }
+};
+
+// Адрес копии не уже width пикселей; внешние и нестандартные адреса возвращаются как есть
+export const imageSrc = (url: string | undefined, width: number): string | undefined => {
+    const key = imageKey(url);
+    return key ? `/img/${key}?w=${width}` : url;
+};
+
+// srcset по всем ширинам - браузер сам выберет копию по sizes и плотности экрана
+export const imageSrcSet = (url: string | undefined): string | undefined => {
+    const key = imageKey(url);
+    return key ? WIDTHS.map(width => `/img/${key}?w=${width} ${width}w`).join(', ') : undefined;
+};
+
+// Для блоков с backgroundImage: фиксированный размер в CSS-пикселях, копия с запасом на Retina
+export const imageBackground = (url: string | undefined, cssWidth: number): string =>
+    `url(${imageSrc(url, cssWidth * 2)})`;
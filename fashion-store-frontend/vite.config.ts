@@ -1,8 +1,46 @@
-import { defineConfig } from 'vite'
+import { defineConfig, type Plugin } from 'vite'
 import react from '@vitejs/plugin-react'
+import { readdirSync, readFileSync, rmSync, statSync, writeFileSync } from 'node:fs'
+import { join, resolve } from 'node:path'
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib'
+
+// Сжатые копии .br и .gz рядом с файлами сборки - Spring отдает их без сжатия на лету
+function precompress(): Plugin {
+  const compressible = /\.(js|css|html|svg|json|txt|xml)$/
+  let outDir = ''
+  const walk = (dir: string): string[] =>
+    readdirSync(dir).flatMap((name) => {
+      const path = join(dir, name)
+      return statSync(path).isDirectory() ? walk(path) : [path]
+    })
+  return {
+    name: 'precompress',
+    apply: 'build',
+    configResolved(config) {
+      outDir = resolve(config.root, config.build.outDir)
+    },
+    closeBundle() {
+      // Картинки в static/images не трогаем - они уже сжаты
+      for (const file of walk(outDir)) {
+        if (!compressible.test(file)) continue
+        if (statSync(file).size < 1024) {
+          // emptyOutDir выключен - убираем копии, оставшиеся от прошлой сборки
+          rmSync(file + '.br', { force: true })
+          rmSync(file + '.gz', { force: true })
+          continue
+        }
+        const data = readFileSync(file)
+        writeFileSync(file + '.br', brotliCompressSync(data, {
+          params: { [constants.BROTLI_PARAM_QUALITY]: 11, [constants.BROTLI_PARAM_SIZE_HINT]: data.length },
+        }))
+        writeFileSync(file + '.gz', gzipSync(data, { level: 9 }))
+      }
+    },
+  }
+}
 
 export default defineConfig({
-  plugins: [react()],
+  plugins: [react(), precompress()],
   base: '/',
   server: {
     host: '0.0.0.0',
@@ -25,6 +63,11 @@ export default defineConfig({
         target: 'http://localhost:8085',
         changeOrigin: true,
         secure: false,
+      },
+      // Уменьшенные копии картинок товаров (ImageProxyController)
+      '/img': {
+        target: 'http://localhost:8085',
+        changeOrigin: true,
       }
     },
     cors: true,
@@ -0,0 +1,83 @@
+package com.example.fashionstorebackend.benchmark;
+
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Order;
+import com.example.fashionstorebackend.model.OrderItem;
+import com.example.fashionstorebackend.model.Product;
+import com.example.fashionstorebackend.model.Subcategory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Сущности для бенчмарков, по форме близкие к реальным: у товара 4 размера
+// и 3 дополнительные картинки, в заказе 2 позиции, в категории 6 подкатегорий
+final class BenchmarkFixtures {
+
+    private static final String[] SIZES = {"XS", "S", "M", "L"};
+
+    private BenchmarkFixtures() {}
+
+    static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            Category category = new Category("категория " + c, "Описание категории " + c, c);
+            category.setId((long) c);
+            for (int s = 0; s < 6; s++) {
+                Subcategory subcategory = new Subcategory("подкатегория " + c + "." + s,
+                        "Описание подкатегории", category, s);
+                subcategory.setId((long) c * 6 + s);
+                category.getSubcategories().add(subcategory);
+            }
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<Product> products(int count) {
+        List<Category> categories = categories(8);
+        List<Product> products = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            Category category = categories.get(p % categories.size());
+            Subcategory subcategory = category.getSubcategories().get(p % category.getSubcategories().size());
+            Product product = new Product("Платье из шифона " + p,
+                    "Элегантное вечернее платье из легкого шифона с цветочным принтом. Свободный крой и пояс.",
+                    9900.0 + p % 100 * 100, "/images/products/p" + p + ".jpg",
+                    "Чёрный", "Шифон 100%", "Стирка при 30°C", category, subcategory);
+            product.setId((long) p);
+            for (int i = 1; i <= 3; i++) {
+                product.getAdditionalImages().add("/images/products/p" + p + "_" + i + ".jpg");
+            }
+            for (int v = 0; v < SIZES.length; v++) {
+                product.addVariant(SIZES[v], v * 2);
+                product.getVariants().get(v).setId((long) p * SIZES.length + v);
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<Order> orders(int count) {
+        List<Product> products = products(Math.min(count, 1000));
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<Order> orders = new ArrayList<>(count);
+        for (int o = 0; o < count; o++) {
+            Order order = new Order("Анна Иванова", "customer" + o + "@example.com", "+7900" + (1000000 + o),
+                    "Москва, ул. Тестовая, д. 1", "yandex", "card", null, 0.0);
+            order.setId((long) o);
+            order.setOrderNumber("ORD" + o);
+            order.setCreatedAt(createdAt.minusMinutes(o));
+            double total = 0;
+            for (int i = 0; i < 2; i++) {
+                Product product = products.get((o + i * 7) % products.size());
+                OrderItem item = new OrderItem(product, 1, SIZES[i], product.getColor());
+                item.setId((long) o * 2 + i);
+                order.addItem(item);
+                total += item.getPrice();
+            }
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+        return orders;
+    }
+}
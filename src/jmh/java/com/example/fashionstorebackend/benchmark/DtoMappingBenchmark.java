@@ -0,0 +1,72 @@
+package com.example.fashionstorebackend.benchmark;
+
+import com.example.fashionstorebackend.dto.CategoryDTO;
+import com.example.fashionstorebackend.dto.OrderDTO;
+import com.example.fashionstorebackend.dto.ProductDTO;
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Order;
+import com.example.fashionstorebackend.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Преобразование сущностей в DTO на размерах списков каталога и админки.
+// Запуск с -prof gc дает норму аллокаций (gc.alloc.rate.norm, байт на операцию)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private List<Product> products;
+    private List<Order> orders;
+    private List<Category> categories;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkFixtures.products(size);
+        orders = BenchmarkFixtures.orders(size);
+        categories = BenchmarkFixtures.categories(size);
+    }
+
+    // GET /api/products
+    @Benchmark
+    public List<ProductDTO> productDtos() {
+        return products.stream()
+                .map(ProductDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    // GET /api/admin/orders
+    @Benchmark
+    public List<OrderDTO> adminOrderDtos() {
+        return orders.stream()
+                .map(OrderDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    // GET /api/categories (CategoryService)
+    @Benchmark
+    public List<CategoryDTO> categoryDtos() {
+        return categories.stream()
+                .map(CategoryDTO::new)
+                .collect(Collectors.toList());
+    }
+}
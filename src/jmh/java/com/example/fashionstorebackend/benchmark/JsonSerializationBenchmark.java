@@ -0,0 +1,65 @@
+package com.example.fashionstorebackend.benchmark;
+
+import com.example.fashionstorebackend.dto.OrderDTO;
+import com.example.fashionstorebackend.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Сериализация ответов каталога и админки в JSON тем же Jackson, что и в приложении.
+// Пишем в "пустой" поток, как при потоковой записи в ответ: буфер с документом не копится
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    // Как и конвертер Spring MVC, поток ответа не закрываем
+    private final JsonMapper jsonMapper = JsonMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private List<ProductDTO> products;
+    private List<OrderDTO> orders;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkFixtures.products(size).stream()
+                .map(ProductDTO::new)
+                .collect(Collectors.toList());
+        orders = BenchmarkFixtures.orders(size).stream()
+                .map(OrderDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void products() {
+        jsonMapper.writeValue(sink, products);
+    }
+
+    @Benchmark
+    public void adminOrders() {
+        jsonMapper.writeValue(sink, orders);
+    }
+}
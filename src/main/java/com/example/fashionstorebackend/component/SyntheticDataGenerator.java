@@ -0,0 +1,358 @@
+package com.example.fashionstorebackend.component;
+
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Order;
+import com.example.fashionstorebackend.model.OrderEvent;
+import com.example.fashionstorebackend.model.OrderItem;
+import com.example.fashionstorebackend.model.Product;
+import com.example.fashionstorebackend.model.Subcategory;
+import com.example.fashionstorebackend.service.OrderNumberGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+// Генератор синтетического каталога и истории заказов для нагрузочного тестирования.
+// Объем задается настройками app.synthetic.*, данные полностью определяются seed:
+// при одинаковых настройках на пустой схеме получается один и тот же набор
+// (контрольная сумма пишется в лог). Вставки идут пачками (JDBC batching),
+// контекст персистентности очищается после каждой пачки, заказы пишутся
+// отдельными транзакциями по CHUNK_SIZE, поэтому память не растет с объемом.
+@Component
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final int FLUSH_SIZE = 500;
+    private static final int CHUNK_SIZE = 5_000;
+
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL", "3XL", "4XL"};
+    private static final String[] COLORS = {"Чёрный", "Белый", "Бежевый", "Синий", "Красный",
+            "Зелёный", "Серый", "Молочный", "Пудровый", "Графит"};
+    private static final String[] MATERIALS = {"Хлопок 100%", "Шифон 100%", "Лён 70%, хлопок 30%",
+            "Вискоза 95%, эластан 5%", "Шерсть 80%, полиамид 20%", "Экокожа", "Полиэстер 100%"};
+    private static final String[] ADJECTIVES = {"Вечерний", "Летний", "Классический", "Оверсайз",
+            "Базовый", "Укороченный", "Приталенный", "Струящийся", "Плиссированный", "Трикотажный"};
+    private static final String[] DELIVERY_METHODS = {"yandex", "yandex", "yandex", "pickup", "marketplace"};
+    private static final String[] PAYMENT_METHODS = {"card", "card", "sbp", "cash"};
+    private static final String[] FIRST_NAMES = {"Анна", "Мария", "Екатерина", "Ольга", "Наталья",
+            "Елена", "Ирина", "Татьяна", "Светлана", "Алексей", "Дмитрий", "Сергей"};
+    private static final String[] LAST_NAMES = {"Иванова", "Смирнова", "Кузнецова", "Попова",
+            "Соколова", "Лебедева", "Козлова", "Новикова", "Морозова", "Волкова"};
+    private static final String[] CITIES = {"Москва", "Санкт-Петербург", "Казань", "Екатеринбург",
+            "Новосибирск", "Краснодар", "Нижний Новгород", "Самара"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.synthetic.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${app.synthetic.categories:6}")
+    private int categories;
+
+    @Value("${app.synthetic.subcategories-per-category:8}")
+    private int subcategoriesPerCategory;
+
+    @Value("${app.synthetic.products:2000}")
+    private int products;
+
+    @Value("${app.synthetic.variants-per-product:5}")
+    private int variantsPerProduct;
+
+    @Value("${app.synthetic.orders:50000}")
+    private int orders;
+
+    @Value("${app.synthetic.months:24}")
+    private int months;
+
+    // Конец истории заказов фиксирован, чтобы набор не зависел от дня запуска
+    @Value("${app.synthetic.history-end:2026-01-01T00:00:00}")
+    private LocalDateTime historyEnd;
+
+    @Value("${app.synthetic.image-base-url:/images/synthetic/}")
+    private String imageBaseUrl;
+
+    public SyntheticDataGenerator(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record Settings(long seed, int categories, int subcategoriesPerCategory, int products,
+                           int variantsPerProduct, int orders, int months, LocalDateTime historyEnd) {}
+
+    public record Result(int categories, int subcategories, int products, int variants,
+                         int orders, int orderItems, long checksum, long elapsedMs) {}
+
+    // Запуск по настройке app.synthetic.enabled=true на пустой базе
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Long existing = transactionTemplate.execute(status ->
+                entityManager.createQuery("SELECT COUNT(c) FROM Category c", Long.class).getSingleResult());
+        if (existing != null && existing > 0) {
+            log.warn("Синтетические данные не загружены: каталог не пуст");
+            return;
+        }
+        generate(new Settings(seed, categories, subcategoriesPerCategory, products,
+                variantsPerProduct, orders, months, historyEnd));
+    }
+
+    public Result generate(Settings settings) {
+        long started = System.nanoTime();
+        Random random = new Random(settings.seed());
+        CRC32 checksum = new CRC32();
+
+        Catalog catalog = transactionTemplate.execute(status -> generateCatalog(settings, random, checksum));
+
+        int orderItems = 0;
+        for (int from = 0; from < settings.orders(); from += CHUNK_SIZE) {
+            int count = Math.min(CHUNK_SIZE, settings.orders() - from);
+            int offset = from;
+            orderItems += transactionTemplate.execute(status ->
+                    generateOrders(settings, catalog, count, random, checksum));
+            log.debug("Синтетические заказы: {} из {}", offset + count, settings.orders());
+        }
+
+        Result result = new Result(settings.categories(),
+                settings.categories() * settings.subcategoriesPerCategory(),
+                catalog.productIds.length, catalog.variantCount, settings.orders(), orderItems,
+                checksum.getValue(), (System.nanoTime() - started) / 1_000_000);
+        log.info("Синтетические данные (seed={}): {} категорий, {} подкатегорий, {} товаров, {} вариантов, " +
+                        "{} заказов, {} позиций за {} мс, контрольная сумма {}",
+                settings.seed(), result.categories(), result.subcategories(), result.products(),
+                result.variants(), result.orders(), result.orderItems(), result.elapsedMs(),
+                Long.toHexString(result.checksum()));
+        return result;
+    }
+
+    // Сжатое описание каталога для генерации заказов: после clear() сущности
+    // не держатся в памяти, позиции ссылаются на товары через getReference
+    private record Catalog(long[] productIds, double[] prices, String[][] sizes, String[] colors,
+                           double[] popularity, int variantCount) {}
+
+    private Catalog generateCatalog(Settings settings, Random random, CRC32 checksum) {
+        List<Subcategory> subcategories = new ArrayList<>();
+        for (int c = 0; c < settings.categories(); c++) {
+            Category category = new Category("категория " + (c + 1), "Синтетическая категория " + (c + 1), c + 1);
+            for (int s = 0; s < settings.subcategoriesPerCategory(); s++) {
+                Subcategory subcategory = new Subcategory("подкатегория " + (c + 1) + "." + (s + 1),
+                        "Синтетическая подкатегория", category, s + 1);
+                category.getSubcategories().add(subcategory);
+                subcategories.add(subcategory);
+            }
+            entityManager.persist(category);
+            update(checksum, category.getName());
+        }
+        entityManager.flush();
+
+        int productCount = settings.products();
+        long[] productIds = new long[productCount];
+        double[] prices = new double[productCount];
+        String[][] sizes = new String[productCount][];
+        String[] colors = new String[productCount];
+        int variantCount = 0;
+
+        for (int p = 0; p < productCount; p++) {
+            Subcategory subcategory = subcategories.get(random.nextInt(subcategories.size()));
+            String color = pick(random, COLORS);
+            // Цены от 990 до ~40 000, ближе к нижней границе, с округлением до 100 и окончанием на 90
+            double price = Math.round((990 + Math.pow(random.nextDouble(), 2) * 39_000) / 100) * 100 - 10;
+
+            Product product = new Product(
+                    pick(random, ADJECTIVES) + " " + subcategory.getName() + " #" + (p + 1),
+                    "Синтетический товар для нагрузочного тестирования",
+                    price,
+                    imageBaseUrl + "p" + (p + 1) + ".jpg",
+                    color,
+                    pick(random, MATERIALS),
+                    "Стирка при 30°C");
+            product.setCategoryEntity(subcategory.getCategory());
+            product.setSubcategoryEntity(subcategory);
+            int images = random.nextInt(4);
+            for (int i = 1; i <= images; i++) {
+                product.getAdditionalImages().add(imageBaseUrl + "p" + (p + 1) + "_" + i + ".jpg");
+            }
+
+            // Подряд идущие размеры от случайного начального
+            int variants = Math.min(SIZES.length, 1 + random.nextInt(settings.variantsPerProduct()));
+            int firstSize = random.nextInt(SIZES.length - variants + 1);
+            sizes[p] = new String[variants];
+            for (int v = 0; v < variants; v++) {
+                sizes[p][v] = SIZES[firstSize + v];
+                product.addVariant(sizes[p][v], random.nextInt(50));
+            }
+            variantCount += variants;
+
+            prices[p] = price;
+            colors[p] = color;
+            update(checksum, product.getName() + "|" + price + "|" + String.join(",", sizes[p]));
+
+            // Идентификатор выдается пулом последовательности сразу при persist
+            entityManager.persist(product);
+            productIds[p] = product.getId();
+            if ((p + 1) % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Популярность по закону Ципфа: несколько хитов и длинный хвост
+        double[] popularity = new double[productCount];
+        double total = 0;
+        for (int p = 0; p < productCount; p++) {
+            total += 1.0 / (p + 1);
+            popularity[p] = total;
+        }
+        for (int p = 0; p < productCount; p++) {
+            popularity[p] /= total;
+        }
+
+        return new Catalog(productIds, prices, sizes, colors, popularity, variantCount);
+    }
+
+    private int generateOrders(Settings settings, Catalog catalog, int count, Random random, CRC32 checksum) {
+        LocalDateTime end = settings.historyEnd();
+        LocalDateTime start = end.minusMonths(settings.months());
+        long spanSeconds = Duration.between(start, end).getSeconds();
+        // Постоянные покупатели: примерно три заказа на человека
+        int customers = Math.max(1, settings.orders() / 3);
+
+        int items = 0;
+        for (int i = 0; i < count; i++) {
+            // Плотность заказов растет линейно к концу периода (растущий магазин),
+            // время суток - в основном с 9 до 23
+            LocalDateTime day = start.plusSeconds((long) (Math.sqrt(random.nextDouble()) * spanSeconds))
+                    .toLocalDate().atStartOfDay();
+            LocalDateTime createdAt = day.plusHours(9 + random.nextInt(14))
+                    .plusMinutes(random.nextInt(60)).plusSeconds(random.nextInt(60));
+
+            int customer = random.nextInt(customers);
+            String city = CITIES[customer % CITIES.length];
+
+            Order order = new Order();
+            order.setOrderNumber(orderNumberGenerator.next());
+            order.setAccessToken(new UUID(random.nextLong(), random.nextLong()).toString());
+            order.setCustomerName(FIRST_NAMES[customer % FIRST_NAMES.length] + " "
+                    + LAST_NAMES[(customer / FIRST_NAMES.length) % LAST_NAMES.length]);
+            order.setCustomerEmail("customer" + customer + "@example.com");
+            order.setCustomerPhone(String.format("+79%09d", customer));
+            order.setDeliveryMethod(pick(random, DELIVERY_METHODS));
+            order.setPaymentMethod(pick(random, PAYMENT_METHODS));
+            order.setDeliveryAddress(city + ", ул. Тестовая, д. " + (1 + customer % 150));
+            order.setCreatedAt(createdAt);
+            order.setStatus(statusFor(createdAt, end, random));
+
+            double total = 0;
+            int lines = 1 + (int) Math.floor(Math.pow(random.nextDouble(), 2) * 4);
+            for (int l = 0; l < lines; l++) {
+                int p = pickProduct(catalog.popularity, random.nextDouble());
+                String[] sizes = catalog.sizes[p];
+                OrderItem item = new OrderItem();
+                item.setProduct(entityManager.getReference(Product.class, catalog.productIds[p]));
+                item.setQuantity(random.nextInt(10) == 0 ? 2 : 1);
+                item.setPrice(catalog.prices[p]);
+                item.setSize(sizes[random.nextInt(sizes.length)]);
+                item.setColor(catalog.colors[p]);
+                order.addItem(item);
+                total += item.getPrice() * item.getQuantity();
+                update(checksum, p + "|" + item.getSize() + "|" + item.getQuantity());
+            }
+            order.setTotalAmount(total);
+            items += lines;
+            update(checksum, createdAt + "|" + order.getStatus() + "|" + order.getCustomerPhone() + "|" + total);
+
+            entityManager.persist(order);
+            persistEvents(order, createdAt);
+
+            if ((i + 1) % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return items;
+    }
+
+    // Журнал: создание и, если заказ уже продвинулся, смена статуса
+    private void persistEvents(Order order, LocalDateTime createdAt) {
+        OrderEvent created = new OrderEvent(order.getId(), OrderEvent.ORDER_CREATED, null, "NEW", null);
+        created.setCreatedAt(createdAt);
+        entityManager.persist(created);
+        if (!"NEW".equals(order.getStatus())) {
+            OrderEvent changed = new OrderEvent(order.getId(), OrderEvent.STATUS_CHANGED, "NEW", order.getStatus(), null);
+            changed.setCreatedAt(createdAt.plusHours(6));
+            entityManager.persist(changed);
+        }
+    }
+
+    // Старые заказы в основном выполнены, свежие - в работе
+    private static String statusFor(LocalDateTime createdAt, LocalDateTime end, Random random) {
+        long ageDays = Duration.between(createdAt, end).toDays();
+        double r = random.nextDouble();
+        if (r < 0.06) {
+            return "CANCELLED";
+        }
+        if (ageDays > 14) {
+            return "COMPLETED";
+        }
+        if (ageDays > 5) {
+            return r < 0.5 ? "SHIPPED" : "COMPLETED";
+        }
+        if (ageDays > 1) {
+            return r < 0.5 ? "PROCESSING" : "SHIPPED";
+        }
+        return r < 0.6 ? "NEW" : "PROCESSING";
+    }
+
+    // Индекс по накопленным долям популярности (бинарный поиск)
+    private static int pickProduct(double[] cumulative, double r) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < r) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void update(CRC32 checksum, String value) {
+        checksum.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
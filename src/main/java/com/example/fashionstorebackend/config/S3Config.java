@@ -1,14 +1,23 @@
 package com.example.fashionstorebackend.config;
 
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.PredefinedBackoffStrategies;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+// Клиент S3 один на приложение: пул соединений, таймауты и повторы настраиваются в app.s3.client.*.
+// Без явных таймаутов зависшее соединение с хранилищем держит поток сервлета до 50 с на каждую попытку.
 @Configuration
 public class S3Config {
 
@@ -24,8 +33,46 @@ public class S3Config {
     @Value("${beget.s3.region:ru1}")
     private String region;
 
+    @Value("${app.s3.client.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${app.s3.client.connection-timeout-ms:2000}")
+    private int connectionTimeoutMs;
+
+    @Value("${app.s3.client.socket-timeout-ms:10000}")
+    private int socketTimeoutMs;
+
+    @Value("${app.s3.client.request-timeout-ms:30000}")
+    private int requestTimeoutMs;
+
+    @Value("${app.s3.client.execution-timeout-ms:60000}")
+    private int executionTimeoutMs;
+
+    @Value("${app.s3.client.connection-max-idle-ms:30000}")
+    private long connectionMaxIdleMs;
+
+    @Value("${app.s3.client.connection-ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Value("${app.s3.client.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.s3.client.retry-base-delay-ms:100}")
+    private int retryBaseDelayMs;
+
+    @Value("${app.s3.client.retry-max-delay-ms:5000}")
+    private int retryMaxDelayMs;
+
+    @Value("${app.s3.client.slow-threshold-ms:2000}")
+    private long slowThresholdMs;
+
     @Bean
-    public AmazonS3 amazonS3() {
+    public S3RequestMetrics s3RequestMetrics() {
+        return new S3RequestMetrics(slowThresholdMs);
+    }
+
+    @Bean
+    public AmazonS3 amazonS3(S3RequestMetrics s3RequestMetrics) {
         BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKey, secretKey);
 
         return AmazonS3ClientBuilder.standard()
@@ -34,6 +81,61 @@ public class S3Config {
                 )
                 .withPathStyleAccessEnabled(true)
                 .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
+                .withClientConfiguration(clientConfiguration(maxConnections, connectionTimeoutMs, socketTimeoutMs,
+                        connectionMaxIdleMs, connectionTtlMs, maxRetries, retryBaseDelayMs, retryMaxDelayMs))
+                .withRequestHandlers(new RequestTimeouts(requestTimeoutMs, executionTimeoutMs), s3RequestMetrics)
                 .build();
     }
-}
\ No newline at end of file
+
+    static ClientConfiguration clientConfiguration(int maxConnections, int connectionTimeoutMs, int socketTimeoutMs,
+                                                   long connectionMaxIdleMs, long connectionTtlMs, int maxRetries,
+                                                   int retryBaseDelayMs, int retryMaxDelayMs) {
+        // Полный джиттер (случайная пауза от 0 до base * 2^попытка): повторы параллельных
+        // загрузок и удалений не приходят в хранилище одной волной после общего сбоя
+        RetryPolicy retryPolicy = new RetryPolicy(
+                PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
+                new PredefinedBackoffStrategies.FullJitterBackoffStrategy(retryBaseDelayMs, retryMaxDelayMs),
+                maxRetries,
+                false);
+
+        return new ClientConfiguration()
+                .withMaxConnections(maxConnections)
+                .withConnectionTimeout(connectionTimeoutMs)
+                .withSocketTimeout(socketTimeoutMs)
+                .withRetryPolicy(retryPolicy)
+                // Повторы расходуют общую квоту: при длительном сбое клиент быстро перестает повторять
+                // и не умножает нагрузку, квота восстанавливается успешными запросами
+                .withThrottledRetries(true)
+                .withTcpKeepAlive(true)
+                // Простаивающие соединения закрываем раньше, чем их оборвет балансировщик хранилища
+                .withConnectionMaxIdleMillis(connectionMaxIdleMs)
+                .withConnectionTTL(connectionTtlMs);
+    }
+
+    // Таймауты на запрос целиком (одна попытка) и на операцию с повторами.
+    // Для GetObject не ставятся: с ними SDK читает все тело ответа в память, а картинки
+    // читаются потоком - зависшее чтение там ограничивает socket-timeout
+    static final class RequestTimeouts extends RequestHandler2 {
+
+        private final int requestTimeoutMs;
+        private final int executionTimeoutMs;
+
+        RequestTimeouts(int requestTimeoutMs, int executionTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+            this.executionTimeoutMs = executionTimeoutMs;
+        }
+
+        @Override
+        public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+            if (!(request instanceof GetObjectRequest)) {
+                if (request.getSdkRequestTimeout() == null) {
+                    request.setSdkRequestTimeout(requestTimeoutMs);
+                }
+                if (request.getSdkClientExecutionTimeout() == null) {
+                    request.setSdkClientExecutionTimeout(executionTimeoutMs);
+                }
+            }
+            return request;
+        }
+    }
+}
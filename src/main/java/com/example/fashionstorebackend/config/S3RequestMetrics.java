@@ -0,0 +1,136 @@
+package com.example.fashionstorebackend.config;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Время операций клиента S3 по типу запроса (PutObject, DeleteObjects, ListObjects...), с учетом повторов.
+// Отсчет от beforeExecution до ответа или окончательной ошибки; для GetObject - до заголовков ответа,
+// чтение тела сюда не входит. Перцентили оцениваются по гистограмме с фиксированными границами.
+@Slf4j
+public class S3RequestMetrics extends RequestHandler2 {
+
+    private static final HandlerContextKey<Long> START = new HandlerContextKey<>("S3RequestMetrics.start");
+
+    // Верхние границы корзин гистограммы, мс; последняя корзина - все, что дольше
+    static final long[] BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final long slowThresholdMs;
+    private final ConcurrentHashMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    public S3RequestMetrics(long slowThresholdMs) {
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        request.addHandlerContext(START, System.nanoTime());
+        return request;
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        record(request, false);
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        record(request, true);
+    }
+
+    private void record(Request<?> request, boolean error) {
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        Long start = original == null ? null : original.getHandlerContext(START);
+        if (start == null) {
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        String operation = operationName(original);
+        operations.computeIfAbsent(operation, name -> new OperationStats()).record(elapsedMs, error);
+        if (elapsedMs >= slowThresholdMs) {
+            log.warn("Slow S3 {} {}: {} ms{}", operation, request.getResourcePath(), elapsedMs,
+                    error ? " (failed)" : "");
+        }
+    }
+
+    // PutObjectRequest -> PutObject
+    static String operationName(AmazonWebServiceRequest request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    // Снимок для админки: операция -> count, errors, avgMs, p50Ms, p95Ms, p99Ms, maxMs
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        operations.forEach((name, stats) -> result.put(name, stats.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        operations.clear();
+    }
+
+    static final class OperationStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final LongAccumulator maxMs = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS_MS.length + 1);
+
+        void record(long elapsedMs, boolean error) {
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalMs.add(elapsedMs);
+            maxMs.accumulate(elapsedMs);
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && elapsedMs > BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        // Верхняя граница корзины, в которую попадает перцентиль; для последней корзины - максимум
+        long percentile(double p) {
+            long total = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                total += histogram.get(i);
+            }
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                seen += histogram.get(i);
+                if (seen >= rank && seen > 0) {
+                    return i < BUCKETS_MS.length ? Math.min(BUCKETS_MS[i], maxMs.get()) : maxMs.get();
+                }
+            }
+            return 0;
+        }
+
+        Map<String, Object> snapshot() {
+            long n = count.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", n);
+            snapshot.put("errors", errors.sum());
+            snapshot.put("avgMs", n == 0 ? 0 : totalMs.sum() / n);
+            snapshot.put("p50Ms", percentile(0.50));
+            snapshot.put("p95Ms", percentile(0.95));
+            snapshot.put("p99Ms", percentile(0.99));
+            snapshot.put("maxMs", maxMs.get());
+            return snapshot;
+        }
+    }
+}
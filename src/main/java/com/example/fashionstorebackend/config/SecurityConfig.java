@@ -51,6 +51,7 @@ public class SecurityConfig {
                                 "/index.html",
                                 "/assets/**",
                                 "/images/**",
+                                "/img/**",
                                 "/api/products/**",
                                 "/api/orders",
                                 "/api/cart/**",
@@ -73,6 +74,8 @@ public class SecurityConfig {
 
     public static class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+        private static final String ORDER_STREAM_PATH = "/api/admin/orders/stream";
+
         private final JwtService jwtService;
 
         public JwtAuthenticationFilter(JwtService jwtService) {
@@ -85,10 +88,16 @@ public class SecurityConfig {
                                         FilterChain filterChain) throws ServletException, IOException {
 
             String authHeader = request.getHeader("Authorization");
+            String token = null;
 
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
+                token = authHeader.substring(7);
+            } else if (ORDER_STREAM_PATH.equals(request.getRequestURI())) {
+                // EventSource не передает заголовки - для ленты заказов токен приходит параметром
+                token = request.getParameter("token");
+            }
 
+            if (token != null) {
                 if (jwtService.validateToken(token)) {
                     String username = jwtService.extractUsername(token);
 
@@ -20,6 +20,10 @@ public class TelegramConfig {
     @Value("${telegram.bot.admin-chat-ids}")
     private String adminChatIds;
 
+    // Базовый адрес Bot API (в нагрузочных тестах - локальная заглушка)
+    @Value("${telegram.api-url:https://api.telegram.org/bot}")
+    private String apiUrl;
+
     // Метод для получения списка ID
     public List<String> getAdminChatIds() {
         return Arrays.asList(adminChatIds.split(","));
@@ -8,6 +8,7 @@ import com.example.fashionstorebackend.service.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -64,6 +65,7 @@ public class AdminAuthController {
     }
 
     @PostMapping("/register")
+    @Transactional // проверка уникальности имени - на основной БД
     public ResponseEntity<?> register(@RequestBody AdminLoginRequest registerRequest) {
         if (adminUserRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity.badRequest().body(Map.of(
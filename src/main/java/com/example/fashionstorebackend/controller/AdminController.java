@@ -1,18 +1,25 @@
 package com.example.fashionstorebackend.controller;
 
+import com.example.fashionstorebackend.config.S3RequestMetrics;
 import com.example.fashionstorebackend.dto.*;
 import com.example.fashionstorebackend.model.*;
 import com.example.fashionstorebackend.repository.*;
+import com.example.fashionstorebackend.service.CatalogCacheService;
 import com.example.fashionstorebackend.service.JwtService;
+import com.example.fashionstorebackend.service.OrderEventService;
+import com.example.fashionstorebackend.service.OrderFeedService;
+import com.example.fashionstorebackend.service.PublicOrderCache;
 import com.example.fashionstorebackend.service.S3Service;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,6 +51,21 @@ public class AdminController {
     @Autowired
     private S3Service s3Service;
 
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private OrderFeedService orderFeedService;
+
+    @Autowired
+    private PublicOrderCache publicOrderCache;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private S3RequestMetrics s3RequestMetrics;
+
     private boolean isAdmin(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -57,6 +79,7 @@ public class AdminController {
     // ========== УПРАВЛЕНИЕ ТОВАРАМИ ==========
 
     @GetMapping("/products")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getAllProducts(HttpServletRequest request) {
         if (!isAdmin(request)) {
             return ResponseEntity.status(403).body(Map.of(
@@ -66,7 +89,7 @@ public class AdminController {
         }
 
         try {
-            List<Product> products = productRepository.findAll();
+            List<Product> products = productRepository.findAllWithDetails();
 
             // Преобразуем Entity в DTO
             List<ProductDTO> productDTOs = products.stream()
@@ -85,6 +108,7 @@ public class AdminController {
     }
 
     @GetMapping("/products/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getProductById(@PathVariable Long id, HttpServletRequest request) {
         if (!isAdmin(request)) {
             return ResponseEntity.status(403).body(Map.of(
@@ -94,7 +118,7 @@ public class AdminController {
         }
 
         try {
-            Optional<Product> productOpt = productRepository.findById(id);
+            Optional<Product> productOpt = productRepository.findWithDetailsById(id);
             if (productOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
@@ -233,6 +257,7 @@ public class AdminController {
 
             // Сохраняем товар (варианты сохранятся каскадно)
             Product savedProduct = productRepository.save(product);
+            catalogCacheService.evictAfterCommit();
 
             log.info("Product created: ID {}, name: {}, categoryId: {}, subcategoryId: {}, variants: {}",
                     savedProduct.getId(),
@@ -266,7 +291,7 @@ public class AdminController {
         }
 
         try {
-            Optional<Product> productOptional = productRepository.findById(id);
+            Optional<Product> productOptional = productRepository.findWithDetailsById(id);
 
             if (productOptional.isEmpty()) {
                 return ResponseEntity.notFound().build();
@@ -403,19 +428,10 @@ public class AdminController {
 
             // Сохраняем обновленный товар (варианты сохранятся каскадно)
             Product updatedProduct = productRepository.save(product);
+            catalogCacheService.evictAfterCommit();
 
-            // Удаляем удаленные фото из S3 в фоне
-            if (!deletedImages.isEmpty()) {
-                final List<String> imagesForDeletion = deletedImages;
-                new Thread(() -> {
-                    try {
-                        s3Service.deleteMultipleFiles(imagesForDeletion);
-                        log.info("Deleted {} images for product ID {}", imagesForDeletion.size(), id);
-                    } catch (Exception e) {
-                        log.error("Failed to delete images for product ID {}: {}", id, e.getMessage());
-                    }
-                }).start();
-            }
+            // Удаляем удаленные фото из S3 в фоне после коммита
+            s3Service.deleteAfterCommit(deletedImages);
 
             log.info("Product updated: ID {}, categoryId: {}, subcategoryId: {}, variants: {}",
                     id,
@@ -469,19 +485,10 @@ public class AdminController {
 
             // Удаляем товар из БД (варианты удалятся каскадно)
             productRepository.deleteById(id);
+            catalogCacheService.evictAfterCommit();
 
-            // Удаляем фото из S3 (в фоновом режиме, чтобы не блокировать ответ)
-            if (!imageUrls.isEmpty()) {
-                final List<String> imagesToDelete = imageUrls;
-                new Thread(() -> {
-                    try {
-                        s3Service.deleteMultipleFiles(imagesToDelete);
-                        log.info("Deleted {} images for product ID {}", imagesToDelete.size(), id);
-                    } catch (Exception e) {
-                        log.error("Failed to delete images for product ID {}: {}", id, e.getMessage());
-                    }
-                }).start();
-            }
+            // Удаляем фото из S3 (в фоне после коммита, чтобы не блокировать ответ)
+            s3Service.deleteAfterCommit(imageUrls);
 
             log.info("Product deleted: ID {}, images deleted: {}", id, imageUrls.size());
 
@@ -503,6 +510,7 @@ public class AdminController {
     // ========== УПРАВЛЕНИЕ ЗАКАЗАМИ ==========
 
     @GetMapping("/orders")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getAllOrders(
             @RequestParam(required = false) String status,
             HttpServletRequest request) {
@@ -538,6 +546,7 @@ public class AdminController {
     }
 
     @GetMapping("/orders/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getOrderById(@PathVariable Long id, HttpServletRequest request) {
         if (!isAdmin(request)) {
             return ResponseEntity.status(403).body(Map.of(
@@ -547,7 +556,7 @@ public class AdminController {
         }
 
         try {
-            Optional<Order> orderOpt = orderRepository.findById(id);
+            Optional<Order> orderOpt = orderRepository.findWithItemsById(id);
             if (orderOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
@@ -565,6 +574,7 @@ public class AdminController {
     }
 
     @PutMapping("/orders/{id}/status")
+    @Transactional // чтение и запись статуса - на основной БД
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long id,
                                                @RequestBody Map<String, String> statusUpdate,
                                                HttpServletRequest request) {
@@ -598,6 +608,12 @@ public class AdminController {
             order.setStatus(newStatus);
             Order updatedOrder = orderRepository.save(order);
 
+            if (!newStatus.equals(oldStatus)) {
+                orderEventService.recordStatusChange(id, oldStatus, newStatus);
+                orderFeedService.publishStatusChange(updatedOrder, oldStatus);
+                publicOrderCache.evict(updatedOrder.getAccessToken());
+            }
+
             // Возвращаем DTO вместо Entity
             OrderDTO orderDTO = convertToDTO(updatedOrder);
             return ResponseEntity.ok(orderDTO);
@@ -610,9 +626,68 @@ public class AdminController {
         }
     }
 
+    // История событий заказа
+    @GetMapping("/orders/{id}/events")
+    public ResponseEntity<?> getOrderEvents(@PathVariable Long id, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        try {
+            List<OrderEventDTO> events = orderEventService.getEventsForOrder(id).stream()
+                    .map(OrderEventDTO::new)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(events);
+        } catch (Exception e) {
+            log.error("Error fetching events for order ID {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "success", false,
+                    "message", "Ошибка загрузки истории заказа: " + e.getMessage()
+            ));
+        }
+    }
+
+    // События всех заказов за период
+    @GetMapping("/order-events")
+    public ResponseEntity<?> getOrderEventsBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Начало периода позже его конца"
+            ));
+        }
+
+        try {
+            List<OrderEventDTO> events = orderEventService.getEventsBetween(from, to).stream()
+                    .map(OrderEventDTO::new)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(events);
+        } catch (Exception e) {
+            log.error("Error fetching order events: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "success", false,
+                    "message", "Ошибка загрузки событий заказов: " + e.getMessage()
+            ));
+        }
+    }
+
     // ========== СТАТИСТИКА ==========
 
     @GetMapping("/stats")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getStats(HttpServletRequest request) {
         if (!isAdmin(request)) {
             return ResponseEntity.status(403).body(Map.of(
@@ -642,71 +717,78 @@ public class AdminController {
         }
     }
 
+    // Статистика кеша второго уровня (справочники каталога)
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        return ResponseEntity.ok(catalogCacheService.getStatistics());
+    }
+
+    // Ручной сброс кеша каталога (например, после правки данных напрямую в БД)
+    @PostMapping("/cache/evict")
+    public ResponseEntity<?> evictCache(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        catalogCacheService.evictAll();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Кеш каталога сброшен"
+        ));
+    }
+
+    // Время операций с S3 по типам запросов с момента запуска (или последнего сброса)
+    @GetMapping("/s3/stats")
+    public ResponseEntity<?> getS3Stats(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        return ResponseEntity.ok(s3RequestMetrics.snapshot());
+    }
+
+    @PostMapping("/s3/stats/reset")
+    public ResponseEntity<?> resetS3Stats(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        s3RequestMetrics.reset();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Статистика S3 сброшена"
+        ));
+    }
+
     // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
 
     private boolean isValidStatus(String status) {
         return status != null && List.of("NEW", "PROCESSING", "SHIPPED", "COMPLETED", "CANCELLED").contains(status);
     }
 
-    // Метод для преобразования Order в OrderDTO
     // Метод для преобразования Order в OrderDTO
     private OrderDTO convertToDTO(Order order) {
-        OrderDTO dto = new OrderDTO();
-        dto.setId(order.getId());
-        dto.setOrderNumber(order.getOrderNumber()); // Добавляем номер заказа
-        dto.setCustomerName(order.getCustomerName());
-        dto.setCustomerEmail(order.getCustomerEmail());
-        dto.setCustomerPhone(order.getCustomerPhone());
-        dto.setDeliveryAddress(order.getDeliveryAddress());
-        dto.setDeliveryMethod(order.getDeliveryMethod());
-        dto.setPaymentMethod(order.getPaymentMethod());
-        dto.setComment(order.getComment());
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setStatus(order.getStatus());
-        dto.setAccessToken(order.getAccessToken());
-        dto.setCreatedAt(order.getCreatedAt());
-
-        // Поля Яндекс.Доставки - ДОБАВЛЯЕМ!
-        dto.setYandexDeliveryPointId(order.getYandexDeliveryPointId());
-        dto.setYandexDeliveryAddress(order.getYandexDeliveryAddress());
-        dto.setYandexDeliveryCity(order.getYandexDeliveryCity());
-        dto.setYandexDeliveryStreet(order.getYandexDeliveryStreet());
-        dto.setYandexDeliveryHouse(order.getYandexDeliveryHouse());
-        dto.setYandexDeliveryComment(order.getYandexDeliveryComment());
-
-        // Поля СДЭК - ДОБАВЛЯЕМ!
-        dto.setCdekDeliveryPointCode(order.getCdekDeliveryPointCode());
-        dto.setCdekDeliveryPointAddress(order.getCdekDeliveryPointAddress());
-        dto.setCdekDeliveryPointCity(order.getCdekDeliveryPointCity());
-        dto.setCdekDeliveryPointName(order.getCdekDeliveryPointName());
-
-        // Преобразуем OrderItems в OrderItemDTO
-        List<OrderItemDTO> itemDTOs = order.getItems().stream()
-                .map(this::convertItemToDTO)
-                .collect(Collectors.toList());
-        dto.setItems(itemDTOs);
-
-        return dto;
-    }
-
-    // Метод для преобразования OrderItem в OrderItemDTO
-    private OrderItemDTO convertItemToDTO(OrderItem item) {
-        OrderItemDTO dto = new OrderItemDTO();
-        dto.setId(item.getId());
-        dto.setQuantity(item.getQuantity());
-        dto.setPrice(item.getPrice());
-        dto.setSize(item.getSize());
-        dto.setColor(item.getColor());
-
-        // Преобразуем Product в ProductDTO
-        Product product = item.getProduct();
-        ProductDTO productDTO = new ProductDTO(product);
-        dto.setProduct(productDTO);
-
-        return dto;
+        return new OrderDTO(order);
     }
 
     @GetMapping("/orders/search")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> searchOrders(
             @RequestParam(required = false) String orderNumber,
             @RequestParam(required = false) String customerName,
@@ -0,0 +1,46 @@
+package com.example.fashionstorebackend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+// Отдача файла телом ответа без копирования через кучу (картинки /img, большие файлы /assets)
+final class FileTransfer {
+
+    // Атрибуты sendfile коннектора Tomcat: файл отправляет сам коннектор через FileChannel.transferTo в сокет
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileTransfer() {
+    }
+
+    // sendfile Tomcat, если коннектор его поддерживает, иначе transferTo в канал поверх потока ответа.
+    // Content-Length обязателен - без него sendfile не включится
+    static void send(HttpServletRequest request, HttpServletResponse response, Path file, long size)
+            throws IOException {
+        response.setContentLengthLong(size);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
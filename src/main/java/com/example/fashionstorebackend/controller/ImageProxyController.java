@@ -0,0 +1,54 @@
+package com.example.fashionstorebackend.controller;
+
+import com.example.fashionstorebackend.service.ImageProxyService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+// Картинки витрины с уменьшением: /img/products/abc.jpg?w=480, /img/images/products/bags/bag_1.jpg?w=160.
+// Ответ пишется прямо в HttpServletResponse, чтобы отдать файл кэша без копирования через кучу.
+@RestController
+public class ImageProxyController {
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String STATIC_CACHE_CONTROL = "public, max-age=86400";
+
+    @Autowired
+    private ImageProxyService imageProxyService;
+
+    @GetMapping("/img/{*key}")
+    public void serve(@PathVariable String key,
+                      @RequestParam(value = "w", required = false) Integer width,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        ImageProxyService.CachedImage image;
+        try {
+            image = imageProxyService.get(key.startsWith("/") ? key.substring(1) : key, width);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (FileNotFoundException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + image.etag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                image.immutable() ? IMMUTABLE_CACHE_CONTROL : STATIC_CACHE_CONTROL);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(image.contentType());
+        FileTransfer.send(request, response, image.file(), image.size());
+    }
+}
@@ -6,6 +6,9 @@ import com.example.fashionstorebackend.repository.OrderRepository;
 import com.example.fashionstorebackend.repository.ProductRepository;
 import com.example.fashionstorebackend.repository.ProductVariantRepository;
 import com.example.fashionstorebackend.service.EmailService;
+import com.example.fashionstorebackend.service.OrderEventService;
+import com.example.fashionstorebackend.service.OrderFeedService;
+import com.example.fashionstorebackend.service.OrderNumberGenerator;
 import com.example.fashionstorebackend.service.TelegramService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -36,11 +40,21 @@ public class OrderController {
     @Autowired
     private TelegramService telegramService;
 
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private OrderFeedService orderFeedService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
     @PostMapping
     @Transactional
     public ResponseEntity<?> createOrder(@RequestBody OrderRequest orderRequest) {
         try {
             Order order = new Order();
+            order.setOrderNumber(orderNumberGenerator.next());
             order.setCustomerName(orderRequest.getCustomerName());
             order.setCustomerEmail(orderRequest.getCustomerEmail());
             order.setCustomerPhone(orderRequest.getCustomerPhone());
@@ -158,6 +172,9 @@ public class OrderController {
                 }
             }
 
+            // Списанные варианты - для журнала движения остатков
+            Map<ProductVariant, Integer> stockMovements = new LinkedHashMap<>();
+
             // Создаем заказ и уменьшаем количество
             for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
                 // Находим вариант товара
@@ -182,6 +199,8 @@ public class OrderController {
                     );
 
                     productVariantRepository.save(variant);
+
+                    stockMovements.merge(variant, actualQuantity, Integer::sum);
                 } else {
                     // Если вариант не найден (старый товар без вариантов)
                     Optional<Product> productOpt = productRepository.findById(itemRequest.getProductId());
@@ -213,9 +232,19 @@ public class OrderController {
             order.setTotalAmount(totalAmount);
             Order savedOrder = orderRepository.save(order);
 
+            // Журнал событий заказа (запишется после коммита)
+            orderEventService.recordOrderCreated(savedOrder.getId(), savedOrder.getStatus());
+            stockMovements.forEach((variant, quantity) ->
+                    orderEventService.recordStockMovement(savedOrder.getId(), variant.getId(),
+                            variant.getSize(), -quantity));
+
+            // Лента заказов в админке (отправится после коммита)
+            orderFeedService.publishNewOrder(savedOrder);
+
             // ОТПРАВЛЯЕМ ПИСЬМО С ПОДТВЕРЖДЕНИЕМ ЗАКАЗА
             try {
                 emailService.sendOrderConfirmation(savedOrder);
+                orderEventService.recordNotification(savedOrder.getId(), "EMAIL", savedOrder.getCustomerEmail());
                 System.out.println("✅ Email отправлен для заказа #" + savedOrder.getOrderNumber());
             } catch (Exception e) {
                 // Логируем ошибку, но не прерываем выполнение
@@ -226,6 +255,7 @@ public class OrderController {
             // ОТПРАВЛЯЕМ TELEGRAM УВЕДОМЛЕНИЕ АДМИНУ
             try {
                 telegramService.sendNewOrderNotification(savedOrder);
+                orderEventService.recordNotification(savedOrder.getId(), "TELEGRAM", null);
                 System.out.println("✅ Telegram уведомление отправлено для заказа #" + savedOrder.getOrderNumber());
             } catch (Exception e) {
                 System.err.println("❌ Ошибка отправки Telegram уведомления: " + e.getMessage());
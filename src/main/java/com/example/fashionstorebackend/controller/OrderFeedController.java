@@ -0,0 +1,62 @@
+package com.example.fashionstorebackend.controller;
+
+import com.example.fashionstorebackend.service.JwtService;
+import com.example.fashionstorebackend.service.OrderFeedService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@CrossOrigin(origins = "http://localhost:5173")
+public class OrderFeedController {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private OrderFeedService orderFeedService;
+
+    // Поток событий по заказам (новые заказы и смены статусов).
+    // EventSource не умеет передавать заголовки, поэтому токен можно передать параметром
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public ResponseEntity<?> streamOrders(
+            @RequestParam(required = false) String token,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletRequest request) {
+
+        if (!isAdmin(request, token)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        Long lastSeenEventId = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                lastSeenEventId = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Некорректный Last-Event-ID - подключаем без возобновления
+            }
+        }
+
+        SseEmitter emitter = orderFeedService.subscribe(lastSeenEventId);
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no") // отключаем буферизацию в nginx
+                .body(emitter);
+    }
+
+    private boolean isAdmin(HttpServletRequest request, String token) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return jwtService.validateToken(authHeader.substring(7));
+        }
+        return token != null && jwtService.validateToken(token);
+    }
+}
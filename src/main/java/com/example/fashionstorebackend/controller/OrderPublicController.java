@@ -1,19 +1,30 @@
 package com.example.fashionstorebackend.controller;
 
 import com.example.fashionstorebackend.dto.OrderDTO;
+import com.example.fashionstorebackend.dto.OrderEventDTO;
 import com.example.fashionstorebackend.dto.OrderItemDTO;
 import com.example.fashionstorebackend.dto.ProductDTO;
+import com.example.fashionstorebackend.dto.ReorderItemDTO;
 import com.example.fashionstorebackend.model.Order;
 import com.example.fashionstorebackend.model.OrderItem;
 import com.example.fashionstorebackend.model.Product;
 import com.example.fashionstorebackend.repository.OrderRepository;
+import com.example.fashionstorebackend.repository.ProductVariantRepository;
+import com.example.fashionstorebackend.service.OrderEventService;
+import com.example.fashionstorebackend.service.PublicOrderCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,35 +35,67 @@ public class OrderPublicController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private PublicOrderCache publicOrderCache;
+
     // Получить заказ по ID и токену
     @GetMapping("/{orderId}")
+    // Не readOnly: страницу открывают сразу после оформления, реплика может еще не получить заказ
+    @Transactional
     public ResponseEntity<?> getOrder(
             @PathVariable Long orderId,
             @RequestParam String token) {
 
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-
-        if (orderOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Заказ не найден");
-            return ResponseEntity.status(404).body(error);
+        // Страницу заказа часто обновляют по ссылке из письма - отдаем готовый DTO из кеша
+        OrderDTO cached = publicOrderCache.get(token);
+        if (cached != null && orderId.equals(cached.getId())) {
+            return ResponseEntity.ok(cached);
         }
 
-        Order order = orderOpt.get();
+        // Поиск по уникальному индексу access_token, позиции и товары - тем же запросом
+        Optional<Order> orderOpt = orderRepository.findWithItemsByAccessToken(token)
+                .filter(order -> isAuthorized(order, orderId, token));
 
-        // Проверяем токен
-        if (!token.equals(order.getAccessToken())) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Доступ запрещен. Неверный токен.");
-            return ResponseEntity.status(403).body(error);
+        if (orderOpt.isEmpty()) {
+            return accessError(orderId);
         }
 
         // Конвертируем в DTO
-        OrderDTO orderDTO = convertToDTO(order);
+        OrderDTO orderDTO = convertToDTO(orderOpt.get());
+        publicOrderCache.put(token, orderDTO);
 
         return ResponseEntity.ok(orderDTO);
     }
 
+    // Токен должен принадлежать именно запрошенному заказу
+    private boolean isAuthorized(Order order, Long orderId, String token) {
+        return orderId.equals(order.getId()) && tokenMatches(token, order.getAccessToken());
+    }
+
+    // Сравнение токенов за постоянное время
+    private boolean tokenMatches(String token, String expected) {
+        return expected != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Заказ по токену не найден: 404, если заказа нет совсем, иначе 403
+    private ResponseEntity<?> accessError(Long orderId) {
+        Map<String, String> error = new HashMap<>();
+        if (!orderRepository.existsById(orderId)) {
+            error.put("error", "Заказ не найден");
+            return ResponseEntity.status(404).body(error);
+        }
+        error.put("error", "Доступ запрещен. Неверный токен.");
+        return ResponseEntity.status(403).body(error);
+    }
+
     private OrderDTO convertToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
@@ -98,47 +141,89 @@ public class OrderPublicController {
         return itemDTO;
     }
 
-    // Повторить заказ (получить список товаров)
+    // Повторить заказ: позиции с текущей ценой и фактическим наличием.
+    // Наличие всех позиций проверяется одним запросом по вариантам
     @GetMapping("/{orderId}/reorder")
+    @Transactional
     public ResponseEntity<?> getOrderForReorder(
             @PathVariable Long orderId,
             @RequestParam String token) {
 
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findByAccessToken(token)
+                .filter(order -> isAuthorized(order, orderId, token));
 
         if (orderOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Заказ не найден");
-            return ResponseEntity.status(404).body(error);
+            return accessError(orderId);
         }
 
-        Order order = orderOpt.get();
+        List<OrderRepository.ReorderLine> lines = orderRepository.findReorderLines(orderId);
 
-        if (!token.equals(order.getAccessToken())) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Доступ запрещен. Неверный токен.");
-            return ResponseEntity.status(403).body(error);
+        Set<Long> productIds = lines.stream()
+                .map(OrderRepository.ReorderLine::getProductId)
+                .collect(Collectors.toSet());
+
+        // Остатки по ключу "productId:размер"
+        Map<String, Integer> stock = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (ProductVariantRepository.VariantStock variant : productVariantRepository.findStockByProductIdIn(productIds)) {
+                stock.put(stockKey(variant.getProductId(), variant.getSize()), variant.getActuallyAvailable());
+            }
         }
 
-        // Создаем упрощенный ответ для повторного заказа
+        List<ReorderItemDTO> items = lines.stream()
+                .map(line -> convertToReorderItem(line, stock))
+                .collect(Collectors.toList());
+
         Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getId());
-        response.put("items", order.getItems().stream()
-                .map(this::convertToReorderItem)
-                .collect(Collectors.toList()));
+        response.put("orderId", orderId);
+        response.put("items", items);
+        response.put("allInStock", items.stream().allMatch(ReorderItemDTO::getInStock));
+        response.put("hasPriceChanges", items.stream().anyMatch(ReorderItemDTO::getPriceChanged));
 
         return ResponseEntity.ok(response);
     }
 
-    private Map<String, Object> convertToReorderItem(OrderItem item) {
-        Map<String, Object> reorderItem = new HashMap<>();
-        reorderItem.put("productId", item.getProduct().getId());
-        reorderItem.put("productName", item.getProduct().getName());
-        reorderItem.put("quantity", item.getQuantity());
-        reorderItem.put("size", item.getSize());
-        reorderItem.put("color", item.getColor());
-        reorderItem.put("price", item.getProduct().getPrice());
-        reorderItem.put("imageUrl", item.getProduct().getImageUrl());
-        return reorderItem;
+    private ReorderItemDTO convertToReorderItem(OrderRepository.ReorderLine line, Map<String, Integer> stock) {
+        int available = stock.getOrDefault(stockKey(line.getProductId(), line.getSize()), 0);
+
+        ReorderItemDTO item = new ReorderItemDTO();
+        item.setProductId(line.getProductId());
+        item.setProductName(line.getProductName());
+        item.setImageUrl(line.getImageUrl());
+        item.setQuantity(line.getQuantity());
+        item.setSize(line.getSize());
+        item.setColor(line.getColor());
+        item.setPrice(line.getCurrentPrice());
+        item.setPreviousPrice(line.getOrderedPrice());
+        item.setAvailableQuantity(available);
+        item.setInStock(available >= line.getQuantity());
+        item.setPriceChanged(!Objects.equals(line.getCurrentPrice(), line.getOrderedPrice()));
+        return item;
+    }
+
+    // Размеры сравниваются без учета регистра, как в Product.getVariantBySize
+    private String stockKey(Long productId, String size) {
+        return productId + ":" + (size != null ? size.toLowerCase() : "");
+    }
+
+    // История статусов заказа (для отслеживания покупателем)
+    @GetMapping("/{orderId}/history")
+    @Transactional
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Long orderId,
+            @RequestParam String token) {
+
+        Optional<Order> orderOpt = orderRepository.findByAccessToken(token)
+                .filter(order -> isAuthorized(order, orderId, token));
+
+        if (orderOpt.isEmpty()) {
+            return accessError(orderId);
+        }
+
+        List<OrderEventDTO> history = orderEventService.getStatusHistory(orderId).stream()
+                .map(OrderEventDTO::new)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(history);
     }
-}
\ No newline at end of file
+}
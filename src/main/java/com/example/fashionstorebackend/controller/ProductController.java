@@ -6,6 +6,7 @@ import com.example.fashionstorebackend.model.ProductVariant;
 import com.example.fashionstorebackend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,35 +24,39 @@ public class ProductController {
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = productRepository.findAllWithDetails();
         return products.stream()
                 .map(ProductDTO::new)
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithDetailsById(id)
                 .map(product -> ResponseEntity.ok(new ProductDTO(product)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Новый эндпоинт для получения доступных размеров товара
     @GetMapping("/{id}/sizes")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<String>> getProductSizes(@PathVariable Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithDetailsById(id)
                 .map(product -> ResponseEntity.ok(product.getSizes()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Новый эндпоинт для проверки доступности размера
     @GetMapping("/{id}/availability")
+    @Transactional(readOnly = true)
     public ResponseEntity<Integer> checkAvailability(
             @PathVariable Long id,
             @RequestParam String size) {
 
-        return productRepository.findById(id)
+        return productRepository.findWithDetailsById(id)
                 .map(product -> {
                     ProductVariant variant = product.getVariantBySize(size);
                     if (variant != null) {
@@ -1,10 +1,16 @@
 package com.example.fashionstorebackend.controller;
 
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import com.example.fashionstorebackend.service.OrphanImageCollector;
+import com.example.fashionstorebackend.service.ParallelUploadService;
+import com.example.fashionstorebackend.service.S3PresignedUploadService;
 import com.example.fashionstorebackend.service.S3Service;
+import com.example.fashionstorebackend.service.S3StreamingUploader;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -15,9 +21,21 @@ import java.util.*;
 @CrossOrigin(origins = "http://localhost:5173")
 public class S3FileController {
 
+    private static final long UPLOAD_TIMEOUT_MS = 5 * 60 * 1000L;
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024L;
+
     @Autowired
     private S3Service s3Service;
 
+    @Autowired
+    private ParallelUploadService parallelUploadService;
+
+    @Autowired
+    private S3PresignedUploadService presignedUploadService;
+
+    @Autowired
+    private OrphanImageCollector orphanImageCollector;
+
     // Загрузка одного файла
     @PostMapping("/upload")
     public ResponseEntity<?> uploadFile(
@@ -49,11 +67,13 @@ public class S3FileController {
                 ));
             }
 
-            String fileUrl = s3Service.uploadFile(file, folder);
+            ImageManifestDTO manifest = s3Service.uploadImage(file, folder);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "url", fileUrl,
+                    "url", manifest.getUrl(),
+                    "renditions", manifest.getRenditions(),
+                    "srcset", manifest.getSrcset(),
                     "fileName", file.getOriginalFilename(),
                     "size", file.getSize(),
                     "message", "Файл успешно загружен"
@@ -67,11 +87,12 @@ public class S3FileController {
         }
     }
 
-    // Загрузка нескольких файлов
-    @PostMapping("/upload-multiple")
-    public ResponseEntity<?> uploadMultipleFiles(
-            @RequestParam("files") MultipartFile[] files,
+    // Потоковая загрузка одного файла: тело запроса - сами байты картинки (не multipart).
+    // Файл не копируется на диск и не держится в памяти целиком - части сразу уходят в S3
+    @PutMapping("/stream")
+    public ResponseEntity<?> streamFile(
             @RequestParam("folder") String folder,
+            @RequestParam("fileName") String fileName,
             HttpServletRequest request) {
 
         if (!isAdmin(request)) {
@@ -81,41 +102,215 @@ public class S3FileController {
             ));
         }
 
-        List<Map<String, Object>> uploadedFiles = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
+        if (!isValidImageFile(fileName)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Недопустимый формат файла. Разрешены: jpg, jpeg, png, gif, webp"
+            ));
+        }
 
-        for (MultipartFile file : files) {
-            try {
-                if (!isValidImageFile(file.getOriginalFilename())) {
-                    errors.add("Файл " + file.getOriginalFilename() + ": недопустимый формат");
-                    continue;
-                }
+        // Content-Type уходит в S3 как есть и отдается браузеру с кэшем на год - только картинки
+        String contentType = request.getContentType() == null ? ""
+                : request.getContentType().split(";")[0].trim().toLowerCase(Locale.ROOT);
+        if (!S3PresignedUploadService.CONTENT_TYPES.contains(contentType)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Недопустимый Content-Type. Разрешены: image/jpeg, image/png, image/gif, image/webp"
+            ));
+        }
 
-                if (file.getSize() > 10 * 1024 * 1024) {
-                    errors.add("Файл " + file.getOriginalFilename() + ": слишком большой (макс 10MB)");
-                    continue;
-                }
+        // Проверка размера (макс 10MB): по заголовку сразу, по факту - во время загрузки
+        if (request.getContentLengthLong() > MAX_FILE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Файл слишком большой. Максимум 10MB"
+            ));
+        }
+
+        try {
+            S3Service.StreamedImage image = s3Service.uploadImageStream(
+                    request.getInputStream(), fileName, contentType, folder, MAX_FILE_SIZE);
+
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "url", image.manifest().getUrl(),
+                    "renditions", image.manifest().getRenditions(),
+                    "srcset", image.manifest().getSrcset(),
+                    "fileName", fileName,
+                    "size", image.size(),
+                    "sha256", image.sha256(),
+                    "message", "Файл успешно загружен"
+            ));
+
+        } catch (S3StreamingUploader.TooLargeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Файл слишком большой. Максимум 10MB"
+            ));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "success", false,
+                    "message", "Ошибка загрузки файла: " + e.getMessage()
+            ));
+        }
+    }
 
-                String fileUrl = s3Service.uploadFile(file, folder);
+    // Прямая загрузка из браузера, шаг 1: ключ по SHA-256 и подписанный PUT URL (S3PresignedUploadService)
+    @PostMapping("/presign")
+    public ResponseEntity<?> presignUpload(
+            @RequestParam("folder") String folder,
+            @RequestParam("fileName") String fileName,
+            @RequestParam("contentType") String contentType,
+            @RequestParam("size") long size,
+            @RequestParam("sha256") String sha256,
+            HttpServletRequest request) {
 
-                uploadedFiles.add(Map.of(
-                        "originalName", file.getOriginalFilename(),
-                        "url", fileUrl,
-                        "size", file.getSize()
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        if (!isValidImageFile(fileName)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Недопустимый формат файла. Разрешены: jpg, jpeg, png, gif, webp"
+            ));
+        }
+
+        try {
+            S3PresignedUploadService.PresignedUpload upload =
+                    presignedUploadService.presign(folder, fileName, contentType, size, sha256);
+            if (upload.existing() != null) {
+                // Такая картинка уже есть - браузеру не нужно ничего загружать
+                return ResponseEntity.ok(Map.of(
+                        "success", true,
+                        "exists", true,
+                        "key", upload.key(),
+                        "url", upload.existing().getUrl(),
+                        "renditions", upload.existing().getRenditions(),
+                        "srcset", upload.existing().getSrcset()
                 ));
+            }
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "exists", false,
+                    "key", upload.key(),
+                    "uploadUrl", upload.uploadUrl(),
+                    "method", "PUT",
+                    "headers", upload.headers(),
+                    "expiresAt", upload.expiresAt().toString()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Прямая загрузка из браузера, шаг 2: после PUT браузер сообщает ключ, приложение проверяет файл
+    @PostMapping("/complete")
+    public ResponseEntity<?> completeUpload(
+            @RequestParam("key") String key,
+            HttpServletRequest request) {
+
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        try {
+            ImageManifestDTO manifest = presignedUploadService.complete(key);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "key", key,
+                    "url", manifest.getUrl(),
+                    "renditions", manifest.getRenditions(),
+                    "srcset", manifest.getSrcset(),
+                    "message", "Файл успешно загружен"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "success", false,
+                    "message", "Ошибка проверки файла: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Загрузка нескольких файлов - параллельно (ParallelUploadService), без занятого потока сервлета.
+    // Если клиент отключился или истек таймаут, незавершенные загрузки отменяются
+    @PostMapping("/upload-multiple")
+    public DeferredResult<ResponseEntity<?>> uploadMultipleFiles(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam("folder") String folder,
+            HttpServletRequest request) {
+
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(UPLOAD_TIMEOUT_MS);
+
+        if (!isAdmin(request)) {
+            deferred.setResult(ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            )));
+            return deferred;
+        }
+
+        List<MultipartFile> validFiles = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        for (MultipartFile file : files) {
+            if (!isValidImageFile(file.getOriginalFilename())) {
+                errors.add("Файл " + file.getOriginalFilename() + ": недопустимый формат");
+                continue;
+            }
 
-            } catch (IOException e) {
-                errors.add("Ошибка загрузки " + file.getOriginalFilename() + ": " + e.getMessage());
+            if (file.getSize() > 10 * 1024 * 1024) {
+                errors.add("Файл " + file.getOriginalFilename() + ": слишком большой (макс 10MB)");
+                continue;
             }
+
+            validFiles.add(file);
         }
 
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "uploadedFiles", uploadedFiles,
-                "totalUploaded", uploadedFiles.size(),
-                "totalFailed", errors.size(),
-                "errors", errors
-        ));
+        ParallelUploadService.Batch batch = parallelUploadService.upload(validFiles, folder);
+        deferred.onTimeout(batch::cancel);
+        deferred.onError(e -> batch.cancel());
+
+        batch.results().thenAccept(results -> {
+            List<Map<String, Object>> uploadedFiles = new ArrayList<>();
+            for (ParallelUploadService.FileResult result : results) {
+                if (result.isSuccess()) {
+                    uploadedFiles.add(Map.of(
+                            "originalName", result.originalName(),
+                            "url", result.manifest().getUrl(),
+                            "renditions", result.manifest().getRenditions(),
+                            "srcset", result.manifest().getSrcset(),
+                            "size", result.size()
+                    ));
+                } else {
+                    errors.add(result.error());
+                }
+            }
+
+            deferred.setResult(ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "uploadedFiles", uploadedFiles,
+                    "totalUploaded", uploadedFiles.size(),
+                    "totalFailed", errors.size(),
+                    "errors", errors
+            )));
+        });
+
+        return deferred;
     }
 
     // Удаление файла
@@ -145,6 +340,38 @@ public class S3FileController {
         }
     }
 
+    // Ручной запуск сборщика неиспользуемых картинок; по умолчанию только отчет без удаления
+    @PostMapping("/orphans/collect")
+    public ResponseEntity<?> collectOrphans(
+            @RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun,
+            HttpServletRequest request) {
+
+        if (!isAdmin(request)) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "success", false,
+                    "message", "Доступ запрещен"
+            ));
+        }
+
+        try {
+            OrphanImageCollector.Result result = orphanImageCollector.collect(dryRun);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "dryRun", dryRun,
+                    "scanned", result.scanned(),
+                    "orphans", result.orphans(),
+                    "sample", result.sample(),
+                    "deleted", result.deleted(),
+                    "failed", result.failed()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "success", false,
+                    "message", "Ошибка сборки неиспользуемых файлов: " + e.getMessage()
+            ));
+        }
+    }
+
     // Проверка авторизации
     private boolean isAdmin(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
@@ -183,7 +410,14 @@ public class S3FileController {
         }
 
         try {
-            s3Service.deleteMultipleFiles(fileUrls);
+            S3Service.DeleteResult result = s3Service.deleteMultipleFiles(fileUrls);
+            if (!result.isSuccess()) {
+                return ResponseEntity.internalServerError().body(Map.of(
+                        "success", false,
+                        "message", "Часть файлов не удалена из S3",
+                        "failedKeys", result.failedKeys()
+                ));
+            }
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Файлы удалены из S3",
@@ -1,15 +1,24 @@
 package com.example.fashionstorebackend.controller;
 
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.ResponseEntity;
+import com.example.fashionstorebackend.service.StaticAssetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 @RestController
 public class SpaController {
 
+    // Имена файлов в /assets содержат хеш содержимого (Vite) - их можно кэшировать навсегда
+    private static final String ASSET_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // index.html ссылается на текущие хеши - браузер должен проверять его при каждом заходе (ответ 304)
+    private static final String INDEX_CACHE_CONTROL = "no-cache";
+
+    @Autowired
+    private StaticAssetService staticAssetService;
+
     @GetMapping(value = {
             "/",
             "/product/**",
@@ -22,15 +31,51 @@ public class SpaController {
             "/admin",
             "/admin/**"
     })
-    public ResponseEntity<Resource> serveIndex(HttpServletRequest request) throws IOException {
-        Resource resource = new ClassPathResource("/static/index.html");
+    public void serveIndex(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StaticAssetService.Asset index = staticAssetService.index();
+        if (index == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(index, INDEX_CACHE_CONTROL, request, response);
+    }
+
+    @GetMapping("/assets/{*path}")
+    public void serveAsset(@PathVariable String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        StaticAssetService.Asset asset = staticAssetService.asset(path.startsWith("/") ? path.substring(1) : path);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(asset, ASSET_CACHE_CONTROL, request, response);
+    }
 
-        if (resource.exists() && resource.isReadable()) {
-            return ResponseEntity.ok()
-                    .header("Content-Type", "text/html; charset=UTF-8")
-                    .body(resource);
+    private void serve(StaticAssetService.Asset asset, String cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StaticAssetService.Variant variant =
+                StaticAssetService.select(asset, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = "\"" + variant.etag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (asset.isEncoded()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(asset.contentType());
+        if (variant.encoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+        if (variant.file() != null) {
+            FileTransfer.send(request, response, variant.file(), variant.size());
         } else {
-            return ResponseEntity.notFound().build();
+            response.setContentLength(variant.data().length);
+            if (!"HEAD".equals(request.getMethod())) {
+                response.getOutputStream().write(variant.data());
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.example.fashionstorebackend.dto;
 
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Subcategory;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +29,21 @@ public class CategoryDTO {
         this.displayOrder = displayOrder;
         this.isActive = isActive;
     }
+
+    // Конструктор для преобразования из Entity (только активные подкатегории)
+    public CategoryDTO(Category category) {
+        this.id = category.getId();
+        this.name = category.getName();
+        this.description = category.getDescription();
+        this.displayOrder = category.getDisplayOrder();
+        this.isActive = category.getIsActive();
+
+        if (category.getSubcategories() != null) {
+            for (Subcategory subcategory : category.getSubcategories()) {
+                if (subcategory.getIsActive()) {
+                    this.subcategories.add(new SubcategoryDTO(subcategory));
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
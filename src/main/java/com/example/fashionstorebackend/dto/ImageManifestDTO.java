@@ -0,0 +1,36 @@
+package com.example.fashionstorebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Загруженная картинка: оригинал и уменьшенные копии для srcset
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageManifestDTO {
+    private String url; // оригинал
+    private List<RenditionDTO> renditions = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RenditionDTO {
+        private String name;
+        private String url;
+        private Integer width;
+        private Integer height;
+        private Long size;
+    }
+
+    // Готовое значение атрибута srcset: "url 160w, url 480w, ..."
+    public String getSrcset() {
+        return renditions.stream()
+                .map(rendition -> rendition.getUrl() + " " + rendition.getWidth() + "w")
+                .collect(Collectors.joining(", "));
+    }
+}
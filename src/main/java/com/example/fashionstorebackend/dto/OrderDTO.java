@@ -1,10 +1,15 @@
 package com.example.fashionstorebackend.dto;
 
+import com.example.fashionstorebackend.model.Order;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Data
+@NoArgsConstructor
 public class OrderDTO {
     private Long id;
     private String orderNumber;
@@ -34,4 +39,37 @@ public class OrderDTO {
     private String cdekDeliveryPointAddress;
     private String cdekDeliveryPointCity;
     private String cdekDeliveryPointName;
+
+    // Конструктор для преобразования из Entity (все поля, для админки)
+    public OrderDTO(Order order) {
+        this.id = order.getId();
+        this.orderNumber = order.getOrderNumber();
+        this.customerName = order.getCustomerName();
+        this.customerEmail = order.getCustomerEmail();
+        this.customerPhone = order.getCustomerPhone();
+        this.deliveryAddress = order.getDeliveryAddress();
+        this.deliveryMethod = order.getDeliveryMethod();
+        this.paymentMethod = order.getPaymentMethod();
+        this.comment = order.getComment();
+        this.totalAmount = order.getTotalAmount();
+        this.status = order.getStatus();
+        this.accessToken = order.getAccessToken();
+        this.createdAt = order.getCreatedAt();
+
+        this.yandexDeliveryPointId = order.getYandexDeliveryPointId();
+        this.yandexDeliveryAddress = order.getYandexDeliveryAddress();
+        this.yandexDeliveryCity = order.getYandexDeliveryCity();
+        this.yandexDeliveryStreet = order.getYandexDeliveryStreet();
+        this.yandexDeliveryHouse = order.getYandexDeliveryHouse();
+        this.yandexDeliveryComment = order.getYandexDeliveryComment();
+
+        this.cdekDeliveryPointCode = order.getCdekDeliveryPointCode();
+        this.cdekDeliveryPointAddress = order.getCdekDeliveryPointAddress();
+        this.cdekDeliveryPointCity = order.getCdekDeliveryPointCity();
+        this.cdekDeliveryPointName = order.getCdekDeliveryPointName();
+
+        this.items = order.getItems().stream()
+                .map(OrderItemDTO::new)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
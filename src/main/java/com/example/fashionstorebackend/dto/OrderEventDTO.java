@@ -0,0 +1,30 @@
+package com.example.fashionstorebackend.dto;
+
+import com.example.fashionstorebackend.model.OrderEvent;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class OrderEventDTO {
+    private Long id;
+    private Long orderId;
+    private String type;
+    private String oldValue;
+    private String newValue;
+    private String details;
+    private LocalDateTime createdAt;
+
+    // Конструктор для преобразования из Entity
+    public OrderEventDTO(OrderEvent event) {
+        this.id = event.getId();
+        this.orderId = event.getOrderId();
+        this.type = event.getType();
+        this.oldValue = event.getOldValue();
+        this.newValue = event.getNewValue();
+        this.details = event.getDetails();
+        this.createdAt = event.getCreatedAt();
+    }
+}
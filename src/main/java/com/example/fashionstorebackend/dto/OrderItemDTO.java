@@ -1,8 +1,11 @@
 package com.example.fashionstorebackend.dto;
 
+import com.example.fashionstorebackend.model.OrderItem;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class OrderItemDTO {
     private Long id;
     private Integer quantity;
@@ -10,4 +13,14 @@ public class OrderItemDTO {
     private String size;
     private String color;
     private ProductDTO product;
+
+    // Конструктор для преобразования из Entity (товар - полный ProductDTO)
+    public OrderItemDTO(OrderItem item) {
+        this.id = item.getId();
+        this.quantity = item.getQuantity();
+        this.price = item.getPrice();
+        this.size = item.getSize();
+        this.color = item.getColor();
+        this.product = new ProductDTO(item.getProduct());
+    }
 }
\ No newline at end of file
@@ -64,8 +64,9 @@ public class ProductDTO {
         this.subcategory = product.getSubcategory();
         this.categoryId = product.getCategoryId();
         this.subcategoryId = product.getSubcategoryId();
+        // Копия, а не коллекция Hibernate - DTO не зависит от открытой сессии
         this.additionalImages = product.getAdditionalImages() != null ?
-                product.getAdditionalImages() : new ArrayList<>();
+                new ArrayList<>(product.getAdditionalImages()) : new ArrayList<>();
 
         // Преобразуем варианты в DTO
         if (product.getVariants() != null) {
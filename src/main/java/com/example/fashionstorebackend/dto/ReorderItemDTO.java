@@ -0,0 +1,18 @@
+package com.example.fashionstorebackend.dto;
+
+import lombok.Data;
+
+@Data
+public class ReorderItemDTO {
+    private Long productId;
+    private String productName;
+    private String imageUrl;
+    private Integer quantity;
+    private String size;
+    private String color;
+    private Double price;              // Текущая цена товара
+    private Double previousPrice;      // Цена в исходном заказе
+    private Integer availableQuantity; // Фактически доступно сейчас (с учетом резерва)
+    private Boolean inStock;           // Хватает ли остатка на всю позицию
+    private Boolean priceChanged;      // Цена изменилась с момента заказа
+}
@@ -1,5 +1,6 @@
 package com.example.fashionstorebackend.dto;
 
+import com.example.fashionstorebackend.model.Subcategory;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,4 +25,15 @@ public class SubcategoryDTO {
         this.displayOrder = displayOrder;
         this.isActive = isActive;
     }
+
+    // Конструктор для преобразования из Entity
+    public SubcategoryDTO(Subcategory subcategory) {
+        this.id = subcategory.getId();
+        this.name = subcategory.getName();
+        this.description = subcategory.getDescription();
+        this.categoryId = subcategory.getCategory().getId();
+        this.categoryName = subcategory.getCategory().getName();
+        this.displayOrder = subcategory.getDisplayOrder();
+        this.isActive = subcategory.getIsActive();
+    }
 }
\ No newline at end of file
@@ -3,18 +3,24 @@ package com.example.fashionstorebackend.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categories")
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.category")
 @Getter
 @Setter
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -30,6 +36,8 @@ public class Category {
     private Boolean isActive = true;
 
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50) // подкатегории всех категорий списка - одним запросом
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.category.subcategories")
     private List<Subcategory> subcategories = new ArrayList<>();
 
     // ДОБАВЬ ЭТОТ БЛОК - связь с товарами (mappedBy = "categoryEntity" соответствует полю в Product)
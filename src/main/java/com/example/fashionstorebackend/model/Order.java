@@ -6,21 +6,37 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 
 @Setter
 @Getter
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_orders_created", columnList = "created_at")
+})
+// Заказ с позициями и товарами для списков и карточки заказа (варианты и картинки товаров - пачками)
+@NamedEntityGraph(name = Order.GRAPH_WITH_ITEMS,
+        attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items"),
+        subgraphs = {
+                @NamedSubgraph(name = "items",
+                        attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product",
+                        attributeNodes = {
+                                @NamedAttributeNode("categoryEntity"),
+                                @NamedAttributeNode("subcategoryEntity")
+                        })
+        })
 public class Order {
+
+    public static final String GRAPH_WITH_ITEMS = "Order.withItems";
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
-    @SequenceGenerator(name = "order_seq", sequenceName = "order_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
-    private String orderNumber; // Уникальный номер заказа
+    private String orderNumber; // Уникальный номер заказа (выдает OrderNumberGenerator)
 
     @Column(nullable = false)
     private String customerName;
@@ -90,7 +106,6 @@ public class Order {
 
     public Order() {
         generateAccessToken();
-        generateOrderNumber();
     }
 
     public Order(String customerName, String customerEmail, String customerPhone,
@@ -105,7 +120,6 @@ public class Order {
         this.comment = comment;
         this.totalAmount = totalAmount;
         generateAccessToken();
-        generateOrderNumber();
     }
 
     // Обновленный конструктор с Яндекс.Доставкой
@@ -130,7 +144,6 @@ public class Order {
         this.yandexDeliveryHouse = yandexDeliveryHouse;
         this.yandexDeliveryComment = yandexDeliveryComment;
         generateAccessToken();
-        generateOrderNumber();
     }
 
     public void generateAccessToken() {
@@ -139,20 +152,6 @@ public class Order {
         }
     }
 
-    public void generateOrderNumber() {
-        if (this.orderNumber == null) {
-            String chars = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-            StringBuilder sb = new StringBuilder();
-            Random random = new Random();
-
-            for (int i = 0; i < 8; i++) {
-                sb.append(chars.charAt(random.nextInt(chars.length())));
-            }
-
-            this.orderNumber = sb.toString();
-        }
-    }
-
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
@@ -163,9 +162,6 @@ public class Order {
         if (this.accessToken == null) {
             generateAccessToken();
         }
-        if (this.orderNumber == null) {
-            generateOrderNumber();
-        }
         if (this.createdAt == null) {
             this.createdAt = LocalDateTime.now();
         }
@@ -0,0 +1,59 @@
+package com.example.fashionstorebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Журнал событий заказа: только добавление, записи никогда не изменяются
+@Setter
+@Getter
+@Entity
+@Immutable
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_order_created", columnList = "order_id, created_at"),
+        @Index(name = "idx_order_events_created", columnList = "created_at")
+})
+public class OrderEvent {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String NOTIFICATION_SENT = "NOTIFICATION_SENT";
+    public static final String STOCK_MOVEMENT = "STOCK_MOVEMENT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_event_seq")
+    @SequenceGenerator(name = "order_event_seq", sequenceName = "order_event_sequence", allocationSize = 50)
+    private Long id;
+
+    // Только ID заказа без @ManyToOne: нет внешнего ключа, вставка не блокирует строку в orders
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 32, updatable = false)
+    private String type; // ORDER_CREATED, STATUS_CHANGED, NOTIFICATION_SENT, STOCK_MOVEMENT
+
+    @Column(name = "old_value", updatable = false)
+    private String oldValue;
+
+    @Column(name = "new_value", updatable = false)
+    private String newValue;
+
+    @Column(length = 1000, updatable = false)
+    private String details;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public OrderEvent() {}
+
+    public OrderEvent(Long orderId, String type, String oldValue, String newValue, String details) {
+        this.orderId = orderId;
+        this.type = type;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.details = details;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.fashionstorebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// Счетчик для выдачи номеров заказов блоками (одна строка на генератор)
+@Setter
+@Getter
+@Entity
+@Table(name = "order_number_blocks")
+public class OrderNumberBlock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Первое значение следующего свободного блока
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public OrderNumberBlock() {}
+
+    public OrderNumberBlock(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+}
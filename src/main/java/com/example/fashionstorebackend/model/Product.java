@@ -3,6 +3,9 @@ package com.example.fashionstorebackend.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,11 +14,21 @@ import java.util.List;
 @Getter
 @Entity
 @Table(name = "products")
+// Варианты (остатки) не кешируются - они меняются с каждым заказом
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product")
+// Карточка товара: категории и варианты одним запросом (каталог, страница товара, редактирование в админке)
+@NamedEntityGraph(name = Product.GRAPH_CARD, attributeNodes = {
+        @NamedAttributeNode("categoryEntity"),
+        @NamedAttributeNode("subcategoryEntity"),
+        @NamedAttributeNode("variants")
+})
 public class Product {
 
+    public static final String GRAPH_CARD = "Product.card";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
-    @SequenceGenerator(name = "product_seq", sequenceName = "product_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,11 +49,11 @@ public class Product {
     private String careInstructions;
 
     // Используем ТОЛЬКО связи с сущностями
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category categoryEntity;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subcategory_id")
     private Subcategory subcategoryEntity;
 
@@ -50,10 +63,14 @@ public class Product {
             joinColumns = @JoinColumn(name = "product_id")
     )
     @Column(name = "image_url")
+    @BatchSize(size = 50) // картинки списка товаров догружаются одним запросом
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product.images")
     private List<String> additionalImages = new ArrayList<>();
 
     // НОВОЕ: Варианты товара (размеры с количеством)
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER) // Изменили LAZY на EAGER
+    // LAZY: нужные варианты подтягиваются графом GRAPH_CARD, иначе - пачками
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<ProductVariant> variants = new ArrayList<>();
     // Конструкторы
     public Product() {}
@@ -3,18 +3,26 @@ package com.example.fashionstorebackend.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "subcategories")
+@Table(name = "subcategories", indexes = {
+        @Index(name = "idx_subcategories_category_active_order", columnList = "category_id, is_active, display_order")
+})
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.subcategory")
 @Getter
 @Setter
 public class Subcategory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subcategory_seq")
+    @SequenceGenerator(name = "subcategory_seq", sequenceName = "subcategory_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
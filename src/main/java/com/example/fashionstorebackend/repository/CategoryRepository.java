@@ -1,8 +1,11 @@
 package com.example.fashionstorebackend.repository;
 
 import com.example.fashionstorebackend.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,13 +15,15 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
-    // Найти все активные категории, отсортированные по displayOrder
+    // Найти все активные категории, отсортированные по displayOrder (кеш запросов)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveTrueOrderByDisplayOrderAsc();
 
     // Найти категорию по имени
     Optional<Category> findByName(String name);
 
-    // Найти все категории (включая неактивные) отсортированные по displayOrder
+    // Найти все категории (включая неактивные) отсортированные по displayOrder (кеш запросов)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findAllByOrderByDisplayOrderAsc();
 
     // Проверить существование категории по имени
@@ -0,0 +1,22 @@
+package com.example.fashionstorebackend.repository;
+
+import com.example.fashionstorebackend.model.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // История заказа в хронологическом порядке (индекс order_id, created_at)
+    List<OrderEvent> findByOrderIdOrderByCreatedAtAsc(Long orderId);
+
+    // История заказа по типам событий (например, только создание и смены статуса)
+    List<OrderEvent> findByOrderIdAndTypeInOrderByCreatedAtAsc(Long orderId, Collection<String> types);
+
+    // События за период (индекс created_at)
+    List<OrderEvent> findByCreatedAtBetweenOrderByCreatedAtAsc(LocalDateTime from, LocalDateTime to);
+}
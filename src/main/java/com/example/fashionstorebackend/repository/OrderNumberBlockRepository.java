@@ -0,0 +1,20 @@
+package com.example.fashionstorebackend.repository;
+
+import com.example.fashionstorebackend.model.OrderNumberBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderNumberBlockRepository extends JpaRepository<OrderNumberBlock, String> {
+
+    // Счетчик с блокировкой строки (SELECT ... FOR UPDATE) - для выдачи блока без гонок между инстансами
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM OrderNumberBlock b WHERE b.name = :name")
+    Optional<OrderNumberBlock> findForUpdate(@Param("name") String name);
+}
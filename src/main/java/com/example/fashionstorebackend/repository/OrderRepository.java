@@ -1,7 +1,10 @@
 package com.example.fashionstorebackend.repository;
 
 import com.example.fashionstorebackend.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,20 +14,53 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Метод для получения всех заказов, отсортированных по дате создания (новые сверху)
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
     List<Order> findAllByOrderByCreatedAtDesc();
 
     // Метод для получения заказов по статусу, отсортированных по дате
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
     List<Order> findAllByStatusOrderByCreatedAtDesc(String status);
 
+    // Заказ с позициями и товарами для карточки заказа в админке
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
+    Optional<Order> findWithItemsById(Long id);
+
     // Метод для поиска заказа по токену доступа
     Optional<Order> findByAccessToken(String accessToken);
 
+    // Заказ по токену доступа вместе с позициями и товарами - одним запросом
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product p " +
+            "LEFT JOIN FETCH p.categoryEntity LEFT JOIN FETCH p.subcategoryEntity " +
+            "WHERE o.accessToken = :accessToken")
+    Optional<Order> findWithItemsByAccessToken(@Param("accessToken") String accessToken);
+
+    // Позиции заказа для повторного заказа - только нужные поля, без загрузки сущностей товаров
+    @Query("SELECT p.id AS productId, p.name AS productName, p.imageUrl AS imageUrl, p.price AS currentPrice, " +
+            "i.price AS orderedPrice, i.quantity AS quantity, i.size AS size, i.color AS color " +
+            "FROM OrderItem i JOIN i.product p WHERE i.order.id = :orderId ORDER BY i.id")
+    List<ReorderLine> findReorderLines(@Param("orderId") Long orderId);
+
+    // Проекция позиции заказа для повторного заказа
+    interface ReorderLine {
+        Long getProductId();
+        String getProductName();
+        String getImageUrl();
+        Double getCurrentPrice();
+        Double getOrderedPrice();
+        Integer getQuantity();
+        String getSize();
+        String getColor();
+    }
+
     // Метод для поиска по номеру заказа (частичное совпадение)
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
     List<Order> findByOrderNumberContainingIgnoreCaseOrderByCreatedAtDesc(String orderNumber);
 
     // Метод для поиска по имени клиента (частичное совпадение)
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
     List<Order> findByCustomerNameContainingIgnoreCaseOrderByCreatedAtDesc(String customerName);
 
     // Метод для поиска по телефону клиента
+    @EntityGraph(Order.GRAPH_WITH_ITEMS)
     List<Order> findByCustomerPhoneContainingOrderByCreatedAtDesc(String customerPhone);
 }
\ No newline at end of file
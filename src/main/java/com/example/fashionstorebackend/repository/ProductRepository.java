@@ -1,9 +1,44 @@
 package com.example.fashionstorebackend.repository;
 
 import com.example.fashionstorebackend.model.Product; // ← ИЗМЕНИТЬ ИМПОРТ
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+
+    // Список товаров для каталога и админки: категории и варианты одним запросом
+    @EntityGraph(Product.GRAPH_CARD)
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    List<Product> findAllWithDetails();
+
+    // Товар для страницы товара и редактирования в админке
+    @EntityGraph(Product.GRAPH_CARD)
+    Optional<Product> findWithDetailsById(Long id);
+
+    // Все ссылки на картинки - для сборщика неиспользуемых файлов S3 (OrphanImageCollector).
+    // Читаются потоком, без загрузки сущностей
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.imageUrl IS NOT NULL")
+    Stream<String> streamImageUrls();
+
+    @Query("SELECT i FROM Product p JOIN p.additionalImages i")
+    Stream<String> streamAdditionalImageUrls();
+
+    @Query("SELECT COUNT(i) FROM Product p JOIN p.additionalImages i")
+    long countAdditionalImages();
+
+    // Какие из ссылок еще используются товарами - перед удалением общих картинок из S3
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.imageUrl IN :urls")
+    List<String> findImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    @Query("SELECT i FROM Product p JOIN p.additionalImages i WHERE i IN :urls")
+    List<String> findAdditionalImageUrlsIn(@Param("urls") Collection<String> urls);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +24,12 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     // Найти варианты по списку ID продуктов
     List<ProductVariant> findByProductIdIn(List<Long> productIds);
 
+    // Остатки всех вариантов для списка товаров - одним запросом, без загрузки сущностей
+    @Query("SELECT v.product.id AS productId, v.size AS size, " +
+            "v.availableQuantity AS availableQuantity, v.reservedQuantity AS reservedQuantity " +
+            "FROM ProductVariant v WHERE v.product.id IN :productIds")
+    List<VariantStock> findStockByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
     // Найти вариант по ID продукта и размеру (с блокировкой для обновления)
     @Query("SELECT v FROM ProductVariant v WHERE v.product.id = :productId AND v.size = :size")
     Optional<ProductVariant> findByProductIdAndSizeWithLock(@Param("productId") Long productId, @Param("size") String size);
@@ -49,4 +56,18 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("SELECT CASE WHEN (v.availableQuantity - v.reservedQuantity >= :quantity) THEN true ELSE false END " +
             "FROM ProductVariant v WHERE v.id = :variantId")
     Boolean isQuantityAvailable(@Param("variantId") Long variantId, @Param("quantity") Integer quantity);
-}
\ No newline at end of file
+
+    // Проекция остатка варианта
+    interface VariantStock {
+        Long getProductId();
+        String getSize();
+        Integer getAvailableQuantity();
+        Integer getReservedQuantity();
+
+        default int getActuallyAvailable() {
+            int available = getAvailableQuantity() != null ? getAvailableQuantity() : 0;
+            int reserved = getReservedQuantity() != null ? getReservedQuantity() : 0;
+            return Math.max(0, available - reserved);
+        }
+    }
+}
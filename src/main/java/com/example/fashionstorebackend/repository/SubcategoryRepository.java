@@ -1,8 +1,11 @@
 package com.example.fashionstorebackend.repository;
 
 import com.example.fashionstorebackend.model.Subcategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,7 +15,8 @@ import java.util.Optional;
 @Repository
 public interface SubcategoryRepository extends JpaRepository<Subcategory, Long> {
 
-    // Найти все активные подкатегории для категории, отсортированные по displayOrder
+    // Найти все активные подкатегории для категории, отсортированные по displayOrder (кеш запросов)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Subcategory> findByCategoryIdAndIsActiveTrueOrderByDisplayOrderAsc(Long categoryId);
 
     // Найти все подкатегории для категории (включая неактивные)
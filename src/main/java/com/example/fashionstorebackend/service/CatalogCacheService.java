@@ -0,0 +1,94 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Product;
+import com.example.fashionstorebackend.model.Subcategory;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Кеш второго уровня для справочных данных каталога: явный сброс и статистика регионов
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogCacheService {
+
+    public static final List<String> REGIONS = List.of(
+            "catalog.category",
+            "catalog.category.subcategories",
+            "catalog.subcategory",
+            "catalog.product",
+            "catalog.product.images"
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Сброс после правки из админки. Hibernate сам обновляет измененные сущности,
+    // но не обратные коллекции: новая подкатегория, сохраненная напрямую,
+    // не попала бы в закешированный Category.subcategories
+    public void evictAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAll();
+                }
+            });
+        } else {
+            evictAll();
+        }
+    }
+
+    public void evictAll() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Category.class);
+        cache.evictEntityData(Subcategory.class);
+        cache.evictEntityData(Product.class);
+        cache.evictCollectionData(Category.class.getName() + ".subcategories");
+        cache.evictCollectionData(Product.class.getName() + ".additionalImages");
+        cache.evictQueryRegions();
+        log.info("Кеш каталога сброшен");
+    }
+
+    // Попадания/промахи по регионам и кешу запросов
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            regions.put(region, Map.of(
+                    "hits", regionStatistics.getHitCount(),
+                    "misses", regionStatistics.getMissCount(),
+                    "puts", regionStatistics.getPutCount(),
+                    "elementsInMemory", regionStatistics.getElementCountInMemory()
+            ));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("regions", regions);
+        result.put("queryCache", Map.of(
+                "hits", statistics.getQueryCacheHitCount(),
+                "misses", statistics.getQueryCacheMissCount(),
+                "puts", statistics.getQueryCachePutCount()
+        ));
+        result.put("secondLevelCache", Map.of(
+                "hits", statistics.getSecondLevelCacheHitCount(),
+                "misses", statistics.getSecondLevelCacheMissCount(),
+                "puts", statistics.getSecondLevelCachePutCount()
+        ));
+        return result;
+    }
+}
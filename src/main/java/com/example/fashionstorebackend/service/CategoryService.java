@@ -22,6 +22,9 @@ public class CategoryService {
     @Autowired
     private SubcategoryRepository subcategoryRepository;
 
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
     // Получить все активные категории с подкатегориями
     @Transactional(readOnly = true)
     public List<CategoryDTO> getAllActiveCategories() {
@@ -63,6 +66,7 @@ public class CategoryService {
         category.setIsActive(categoryDTO.getIsActive() != null ? categoryDTO.getIsActive() : true);
 
         Category savedCategory = categoryRepository.save(category);
+        catalogCacheService.evictAfterCommit();
         return convertToDTO(savedCategory);
     }
 
@@ -84,6 +88,7 @@ public class CategoryService {
         category.setIsActive(categoryDTO.getIsActive() != null ? categoryDTO.getIsActive() : category.getIsActive());
 
         Category updatedCategory = categoryRepository.save(category);
+        catalogCacheService.evictAfterCommit();
         return convertToDTO(updatedCategory);
     }
 
@@ -115,6 +120,7 @@ public class CategoryService {
 
         // Удаляем саму категорию
         categoryRepository.delete(category);
+        catalogCacheService.evictAfterCommit();
     }
 
     // Получить подкатегории для категории
@@ -145,6 +151,7 @@ public class CategoryService {
         subcategory.setIsActive(subcategoryDTO.getIsActive() != null ? subcategoryDTO.getIsActive() : true);
 
         Subcategory savedSubcategory = subcategoryRepository.save(subcategory);
+        catalogCacheService.evictAfterCommit();
         return convertToDTO(savedSubcategory);
     }
 
@@ -173,6 +180,7 @@ public class CategoryService {
         subcategory.setIsActive(subcategoryDTO.getIsActive() != null ? subcategoryDTO.getIsActive() : subcategory.getIsActive());
 
         Subcategory updatedSubcategory = subcategoryRepository.save(subcategory);
+        catalogCacheService.evictAfterCommit();
         return convertToDTO(updatedSubcategory);
     }
 
@@ -190,40 +198,17 @@ public class CategoryService {
 
         // Удаляем подкатегорию
         subcategoryRepository.delete(subcategory);
+        catalogCacheService.evictAfterCommit();
     }
 
     // Конвертация Category в CategoryDTO
     private CategoryDTO convertToDTO(Category category) {
-        CategoryDTO dto = new CategoryDTO();
-        dto.setId(category.getId());
-        dto.setName(category.getName());
-        dto.setDescription(category.getDescription());
-        dto.setDisplayOrder(category.getDisplayOrder());
-        dto.setIsActive(category.getIsActive());
-
-        // Конвертируем подкатегории если они загружены
-        if (category.getSubcategories() != null) {
-            List<SubcategoryDTO> subcategoryDTOs = category.getSubcategories().stream()
-                    .filter(Subcategory::getIsActive)
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-            dto.setSubcategories(subcategoryDTOs);
-        }
-
-        return dto;
+        return new CategoryDTO(category);
     }
 
     // Конвертация Subcategory в SubcategoryDTO
     private SubcategoryDTO convertToDTO(Subcategory subcategory) {
-        SubcategoryDTO dto = new SubcategoryDTO();
-        dto.setId(subcategory.getId());
-        dto.setName(subcategory.getName());
-        dto.setDescription(subcategory.getDescription());
-        dto.setCategoryId(subcategory.getCategory().getId());
-        dto.setCategoryName(subcategory.getCategory().getName());
-        dto.setDisplayOrder(subcategory.getDisplayOrder());
-        dto.setIsActive(subcategory.getIsActive());
-        return dto;
+        return new SubcategoryDTO(subcategory);
     }
 
     // Конвертация CategoryDTO в Category (для обновления)
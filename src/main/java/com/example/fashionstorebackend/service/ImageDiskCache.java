@@ -0,0 +1,195 @@
+package com.example.fashionstorebackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Дисковый кэш картинок /img с ограничением по суммарному размеру.
+// Индекс - LinkedHashMap в порядке доступа: при переполнении удаляются давно не запрошенные файлы.
+// Файл называется <id>.<расширение формата>: тип содержимого хранится вместе с записью, и после
+// перезапуска индекс восстанавливается с диска (по времени изменения файлов) вместе с типами.
+// Файл пишется во временный и переименовывается атомарно - читатель не увидит недописанный.
+// Вытесненный файл удаляется не сразу, а через RETIRE_GRACE_MS: sendfile Tomcat открывает его по имени
+// уже после выхода из контроллера, когда Content-Length отправлен. Пока файл не удален, диск может
+// превышать лимит на размер вытесненного за это время.
+@Slf4j
+@Service
+public class ImageDiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long RETIRE_GRACE_MS = 60_000;
+    // Расширение файла в кэше -> Content-Type
+    private static final Map<String, String> TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp");
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long retireGraceNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Вытесненные файлы, ожидающие удаления: имя файла -> время вытеснения (nanoTime)
+    private final LinkedHashMap<String, Long> retired = new LinkedHashMap<>();
+    private long totalBytes;
+
+    private record Entry(String fileName, long size, String contentType) {}
+
+    public record Cached(Path file, long size, String contentType) {}
+
+    @Autowired
+    public ImageDiskCache(@Value("${app.img.cache-dir:${java.io.tmpdir}/palomica-img}") String directory,
+                          @Value("${app.img.cache-max-mb:512}") long maxMb) throws IOException {
+        this(Path.of(directory), maxMb * 1024 * 1024, RETIRE_GRACE_MS);
+    }
+
+    ImageDiskCache(Path directory, long maxBytes, long retireGraceMs) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.retireGraceNanos = retireGraceMs * 1_000_000;
+        load();
+    }
+
+    // Файл с размером и типом или null; обращение поднимает запись в конец очереди вытеснения
+    public synchronized Cached get(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : cached(entry);
+    }
+
+    // contentType - один из поддерживаемых форматов (image/jpeg, image/png, image/gif, image/webp)
+    public Cached put(String id, byte[] data, String contentType) throws IOException {
+        String fileName = id + "." + extension(contentType);
+        Path temp = Files.createTempFile(directory, id, TEMP_SUFFIX);
+        try {
+            Files.write(temp, data);
+            // Переименование и запись в индекс под одной блокировкой: иначе отложенное удаление
+            // прежней копии этого файла могло бы стереть только что положенный
+            synchronized (this) {
+                Files.move(temp, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                retired.remove(fileName);
+                Entry entry = new Entry(fileName, data.length, contentType);
+                Entry previous = entries.put(id, entry);
+                if (previous != null) {
+                    totalBytes -= previous.size();
+                    if (!previous.fileName().equals(fileName)) {
+                        retired.put(previous.fileName(), System.nanoTime());
+                    }
+                }
+                totalBytes += data.length;
+                evict();
+                deleteRetired();
+                return cached(entry);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Cached cached(Entry entry) {
+        return new Cached(directory.resolve(entry.fileName()), entry.size(), entry.contentType());
+    }
+
+    private static String extension(String contentType) {
+        for (Map.Entry<String, String> type : TYPES.entrySet()) {
+            if (type.getValue().equals(contentType)) {
+                return type.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый тип картинки: " + contentType);
+    }
+
+    // Последний добавленный файл не вытесняется, даже если он один больше лимита
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        long now = System.nanoTime();
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            Entry entry = eldest.next();
+            retired.put(entry.fileName(), now);
+            totalBytes -= entry.size();
+            eldest.remove();
+        }
+    }
+
+    // Удаляет файлы, вытесненные раньше чем RETIRE_GRACE_MS назад; очередь упорядочена по времени
+    private void deleteRetired() {
+        Iterator<Map.Entry<String, Long>> oldest = retired.entrySet().iterator();
+        long now = System.nanoTime();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (now - entry.getValue() < retireGraceNanos) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Не удалось удалить файл кэша {}: {}", entry.getKey(), e.getMessage());
+            }
+            oldest.remove();
+        }
+    }
+
+    private record CachedFile(String id, Entry entry, long modified) {}
+
+    private void load() throws IOException {
+        List<CachedFile> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.map(path -> {
+                try {
+                    String name = path.getFileName().toString();
+                    int dot = name.lastIndexOf('.');
+                    String contentType = dot > 0 ? TYPES.get(name.substring(dot + 1)) : null;
+                    if (contentType == null) {
+                        // Временный файл прерванной записи или файл без известного типа (старый формат кэша)
+                        Files.deleteIfExists(path);
+                        return null;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    return attributes.isRegularFile()
+                            ? new CachedFile(name.substring(0, dot), new Entry(name, attributes.size(), contentType),
+                                    attributes.lastModifiedTime().toMillis())
+                            : null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).filter(file -> file != null).sorted(Comparator.comparingLong(CachedFile::modified)).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        synchronized (this) {
+            for (CachedFile file : files) {
+                Entry previous = entries.put(file.id(), file.entry());
+                if (previous != null) {
+                    // Тот же id в другом формате - остается более новый файл
+                    totalBytes -= previous.size();
+                    Files.deleteIfExists(directory.resolve(previous.fileName()));
+                }
+                totalBytes += file.entry().size();
+            }
+            evict();
+        }
+        log.info("Кэш картинок {}: {} файлов, {} КБ", directory, entries.size(), totalBytes / 1024);
+    }
+}
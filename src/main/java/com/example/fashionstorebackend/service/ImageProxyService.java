@@ -0,0 +1,227 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.S3Object;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Картинки витрины через /img/{key}?w=: оригинал берется один раз (из S3 или из static/images
+// для демо-товаров), уменьшается до ширины из ImageRenditionService.SIZES и лежит в ImageDiskCache.
+// Запрошенная ширина округляется вверх до одной из SIZES - иначе перебором w можно забить кэш.
+// Для S3 сначала пробуем готовую копию (products/abc_card.jpg), уменьшаем сами только старые картинки.
+// Параллельные промахи по одному ключу ждут одну загрузку, а не идут в S3 каждый.
+// Content-Type берется из сигнатуры отданных байтов: если уменьшить не удалось (WebP), в кэше лежит
+// оригинал, и он должен уйти со своим типом, а не как JPEG.
+@Slf4j
+@Service
+public class ImageProxyService {
+
+    private static final String STATIC_PREFIX = "images/";
+    // Только картинки товаров из S3 и демо-картинки: остальной бакет через прокси не отдается
+    private static final Pattern KEY = Pattern.compile(
+            "(products|images)(/[A-Za-z0-9][A-Za-z0-9_.\\-]*)+\\.(jpe?g|png|gif|webp)",
+            Pattern.CASE_INSENSITIVE);
+    private static final long MAX_ORIGINAL_SIZE = 20 * 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final ImageRenditionService imageRenditionService;
+    private final ImageDiskCache cache;
+    private final String bucketName;
+    private final ConcurrentHashMap<String, CompletableFuture<ImageDiskCache.Cached>> loading =
+            new ConcurrentHashMap<>();
+
+    public ImageProxyService(AmazonS3 amazonS3, ImageRenditionService imageRenditionService, ImageDiskCache cache,
+                             @Value("${beget.s3.bucket-name}") String bucketName) {
+        this.amazonS3 = amazonS3;
+        this.imageRenditionService = imageRenditionService;
+        this.cache = cache;
+        this.bucketName = bucketName;
+    }
+
+    // etag - имя файла в кэше (хеш ключа, ширины и версии источника);
+    // immutable - ключи S3 не перезаписываются, демо-картинки могут смениться с новой сборкой
+    public record CachedImage(Path file, long size, String contentType, String etag, boolean immutable) {}
+
+    // width == null - оригинал без уменьшения. FileNotFoundException - картинки нет
+    public CachedImage get(String key, Integer width) throws IOException {
+        if (key == null || !KEY.matcher(key).matches() || key.contains("..")) {
+            throw new IllegalArgumentException("Недопустимый ключ картинки: " + key);
+        }
+        if (width != null && width <= 0) {
+            throw new IllegalArgumentException("Недопустимая ширина: " + width);
+        }
+        ImageRenditionService.Size size = width == null ? null : ImageRenditionService.sizeForWidth(width);
+        boolean fromStatic = key.startsWith(STATIC_PREFIX);
+        ClassPathResource resource = fromStatic ? new ClassPathResource("static/" + key) : null;
+        if (fromStatic && !resource.exists()) {
+            throw new FileNotFoundException(key);
+        }
+        String version = fromStatic ? String.valueOf(resource.lastModified()) : "";
+        String id = cacheId(key, size, version);
+
+        ImageDiskCache.Cached cached = cache.get(id);
+        if (cached == null) {
+            cached = load(id, () -> fetch(key, size, resource));
+        }
+        return new CachedImage(cached.file(), cached.size(), cached.contentType(), id, !fromStatic);
+    }
+
+    private interface Loader {
+        byte[] load() throws IOException;
+    }
+
+    private ImageDiskCache.Cached load(String id, Loader loader) throws IOException {
+        CompletableFuture<ImageDiskCache.Cached> future = new CompletableFuture<>();
+        CompletableFuture<ImageDiskCache.Cached> running = loading.putIfAbsent(id, future);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            ImageDiskCache.Cached cached = cache.get(id);
+            if (cached == null) {
+                long start = System.currentTimeMillis();
+                byte[] data = loader.load();
+                cached = cache.put(id, data, contentType(data));
+                log.debug("Картинка {} подготовлена за {} мс", id, System.currentTimeMillis() - start);
+            }
+            future.complete(cached);
+            return cached;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, future);
+        }
+    }
+
+    private static ImageDiskCache.Cached await(CompletableFuture<ImageDiskCache.Cached> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    // resource != null - демо-картинка из static/images
+    private byte[] fetch(String key, ImageRenditionService.Size size, ClassPathResource resource)
+            throws IOException {
+        if (resource == null) {
+            return fromS3(key, size);
+        }
+        if (size != null) {
+            try (InputStream in = resource.getInputStream()) {
+                byte[] data = resized(in, size);
+                if (data != null) {
+                    return data;
+                }
+            }
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private byte[] fromS3(String key, ImageRenditionService.Size size) throws IOException {
+        if (size == null) {
+            return read(key);
+        }
+        // Копия нужной ширины уже есть у картинок, загруженных через админку
+        byte[] rendition = readIfExists(ImageRenditionService.renditionKey(key, size.name()));
+        if (rendition != null) {
+            return rendition;
+        }
+        byte[] data;
+        try (S3Object object = amazonS3.getObject(bucketName, key)) {
+            data = resized(object.getObjectContent(), size);
+        } catch (AmazonS3Exception e) {
+            throw notFoundOr(e, key);
+        }
+        // WebP ImageIO не декодирует - отдаем оригинал, браузер определит формат по сигнатуре
+        return data != null ? data : read(key);
+    }
+
+    private byte[] resized(InputStream original, ImageRenditionService.Size size) throws IOException {
+        ImageRenditionService.Rendition rendition =
+                imageRenditionService.renderWidth(original, size.name(), size.maxWidth());
+        return rendition == null ? null : rendition.data();
+    }
+
+    private byte[] read(String key) throws IOException {
+        byte[] data = readIfExists(key);
+        if (data == null) {
+            throw new FileNotFoundException(key);
+        }
+        return data;
+    }
+
+    private byte[] readIfExists(String key) throws IOException {
+        try (S3Object object = amazonS3.getObject(bucketName, key)) {
+            if (object.getObjectMetadata().getContentLength() > MAX_ORIGINAL_SIZE) {
+                throw new IOException("Слишком большой файл: " + key);
+            }
+            return object.getObjectContent().readAllBytes();
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw new IOException("Ошибка чтения из S3: " + e.getMessage(), e);
+        }
+    }
+
+    private static IOException notFoundOr(AmazonS3Exception e, String key) {
+        return e.getStatusCode() == 404
+                ? new FileNotFoundException(key)
+                : new IOException("Ошибка чтения из S3: " + e.getMessage(), e);
+    }
+
+    // Тип по сигнатуре отдаваемых байтов, а не по расширению ключа
+    static String contentType(byte[] data) throws IOException {
+        if (startsWith(data, 0, (byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G')) return "image/png";
+        if (startsWith(data, 0, (byte) 'G', (byte) 'I', (byte) 'F', (byte) '8')) return "image/gif";
+        if (startsWith(data, 0, (byte) 'R', (byte) 'I', (byte) 'F', (byte) 'F')
+                && startsWith(data, 8, (byte) 'W', (byte) 'E', (byte) 'B', (byte) 'P')) return "image/webp";
+        if (startsWith(data, 0, (byte) 0xFF, (byte) 0xD8, (byte) 0xFF)) return "image/jpeg";
+        throw new IOException("Объект в хранилище не является картинкой поддерживаемого формата");
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte... signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (data[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String cacheId(String key, ImageRenditionService.Size size, String version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    (key + "|" + (size == null ? "" : size.name()) + "|" + version).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.fashionstorebackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Уменьшенные копии загруженных картинок для витрины.
+// Оригинал декодируется один раз, из него получаются копии по ширине (без увеличения),
+// каждая кодируется в прогрессивный JPEG без метаданных (EXIF, GPS, ICC не переносятся).
+// Поворот из EXIF Orientation (снимки с телефона) применяется к пикселям до того, как метаданные отброшены.
+// Ключи копий выводятся из ключа оригинала, поэтому их можно найти и удалить без БД.
+@Slf4j
+@Service
+public class ImageRenditionService {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    public record Size(String name, int maxWidth) {}
+
+    // По возрастанию ширины
+    public static final List<Size> SIZES = List.of(
+            new Size("thumb", 160),   // миниатюры в корзине и админке
+            new Size("card", 480),    // карточка в сетке каталога
+            new Size("detail", 960),  // страница товара
+            new Size("zoom", 1600));  // увеличение
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final long MAX_PIXELS = 50_000_000L; // защита от "бомб" с огромным разрешением
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int APP1 = 0xE1;
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    public record Rendition(String name, int width, int height, byte[] data) {}
+
+    // Копии для всех размеров не больше оригинала; пустой список - формат не поддерживается ImageIO (например, WebP)
+    public List<Rendition> render(byte[] original) throws IOException {
+        return render(new ByteArrayInputStream(original));
+    }
+
+    // То же из потока - например, из объекта, уже загруженного в S3 потоково
+    public List<Rendition> render(InputStream original) throws IOException {
+        BufferedImage source = decode(original);
+        if (source == null) {
+            return List.of();
+        }
+
+        // Ширины по возрастанию; размеры шире оригинала сводятся к его ширине один раз
+        List<Size> planned = new ArrayList<>();
+        for (Size size : SIZES) {
+            int width = Math.min(size.maxWidth(), source.getWidth());
+            if (planned.isEmpty() || width > planned.get(planned.size() - 1).maxWidth()) {
+                planned.add(new Size(size.name(), width));
+            }
+        }
+
+        // Каждая копия уменьшается из предыдущей, большей - а не заново из оригинала
+        Rendition[] renditions = new Rendition[planned.size()];
+        BufferedImage larger = source;
+        for (int i = planned.size() - 1; i >= 0; i--) {
+            int width = planned.get(i).maxWidth();
+            int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+            BufferedImage resized = resize(larger, width, height);
+            renditions[i] = new Rendition(planned.get(i).name(), width, height, encodeJpeg(resized));
+            larger = resized;
+        }
+        log.debug("Созданы копии картинки {}x{}: {}", source.getWidth(), source.getHeight(),
+                planned.stream().map(Size::name).toList());
+        return List.of(renditions);
+    }
+
+    // Одна копия заданной ширины (без увеличения) - для /img; null, если формат не поддерживается
+    public Rendition renderWidth(InputStream original, String name, int maxWidth) throws IOException {
+        BufferedImage source = decode(original);
+        if (source == null) {
+            return null;
+        }
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        return new Rendition(name, width, height, encodeJpeg(resize(source, width, height)));
+    }
+
+    // Ширина из SIZES, не меньше запрошенной (самая большая, если запрошено шире)
+    public static Size sizeForWidth(int width) {
+        for (Size size : SIZES) {
+            if (size.maxWidth() >= width) {
+                return size;
+            }
+        }
+        return SIZES.get(SIZES.size() - 1);
+    }
+
+    // products/abc.jpg + card -> products/abc_card.jpg
+    public static String renditionKey(String originalKey, String name) {
+        int slash = originalKey.lastIndexOf('/');
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > slash ? originalKey.substring(0, dot) : originalKey;
+        return base + "_" + name + ".jpg";
+    }
+
+    private BufferedImage decode(InputStream data) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(data)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new IOException("Слишком большое разрешение картинки: " +
+                            reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                int orientation = orientation(reader.getImageMetadata(0));
+                return orient(reader.read(0), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF Orientation (1-8) из сегмента APP1 JPEG; 1 - без поворота, в том числе для PNG/GIF и битого EXIF
+    static int orientation(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = child(metadata.getAsTree(JPEG_METADATA_FORMAT), "markerSequence");
+        for (Node node = markers == null ? null : markers.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if ("unknown".equals(node.getNodeName())
+                    && String.valueOf(APP1).equals(attribute(node, "MarkerTag"))
+                    && node instanceof IIOMetadataNode unknown
+                    && unknown.getUserObject() instanceof byte[] data) {
+                int orientation = exifOrientation(data);
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Разбор "Exif\0\0" + TIFF: порядок байтов, смещение IFD0, поиск тега 0x0112 (SHORT); 0 - тега нет
+    static int exifOrientation(byte[] app1) {
+        byte[] header = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        if (app1.length < header.length + 8) {
+            return 0;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (app1[i] != header[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, header.length, app1.length - header.length).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        try {
+            int ifd = tiff.getInt(4);
+            int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if (Short.toUnsignedInt(tiff.getShort(entry)) == TAG_ORIENTATION) {
+                    int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                    return value >= 1 && value <= 8 ? value : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            log.debug("Некорректный EXIF, поворот не применяется");
+        }
+        return 0;
+    }
+
+    // Приведение к виду, в котором картинку показывает просмотрщик; 5-8 меняют ширину и высоту местами
+    static BufferedImage orient(BufferedImage source, int orientation) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);  // отражение по горизонтали
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);  // отражение по вертикали
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);   // транспонирование
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);  // 90 по часовой
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // поперечное транспонирование
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);  // 90 против часовой
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h,
+                source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static Node child(Node parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static String attribute(Node node, String name) {
+        Node attribute = node.getAttributes() == null ? null : node.getAttributes().getNamedItem(name);
+        return attribute == null ? null : attribute.getNodeValue();
+    }
+
+    // Уменьшение шагами не больше чем вдвое: билинейная интерполяция на каждом шаге
+    // дает качество, близкое к бикубической, без муара на мелком узоре ткани
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            current = draw(current, currentWidth, currentHeight);
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    // Отрисовка в RGB на белом фоне: прозрачность PNG/GIF в JPEG не поддерживается
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.OrderEvent;
+import com.example.fashionstorebackend.repository.OrderEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Журнал событий заказов: события копятся в буфере и пишутся пачками,
+// не затрагивая строку заказа в таблице orders
+@Slf4j
+@Service
+public class OrderEventService {
+
+    private static final int BUFFER_CAPACITY = 10_000;
+    private static final int FLUSH_BATCH_SIZE = 500;
+    // Столько попыток (по одной на запуск flush) дается пачке, которую не удалось записать
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+
+    private final OrderEventRepository orderEventRepository;
+    private final TransactionTemplate requiresNew;
+
+    private final BlockingQueue<OrderEvent> buffer = new LinkedBlockingQueue<>(BUFFER_CAPACITY);
+
+    // Пачка, не записанная при прошлом flush, и число неудачных попыток
+    private List<OrderEvent> failedBatch = List.of();
+    private int failedAttempts;
+
+    public OrderEventService(OrderEventRepository orderEventRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.orderEventRepository = orderEventRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void recordOrderCreated(Long orderId, String status) {
+        record(new OrderEvent(orderId, OrderEvent.ORDER_CREATED, null, status, null));
+    }
+
+    public void recordStatusChange(Long orderId, String oldStatus, String newStatus) {
+        record(new OrderEvent(orderId, OrderEvent.STATUS_CHANGED, oldStatus, newStatus, null));
+    }
+
+    // channel: EMAIL, TELEGRAM
+    public void recordNotification(Long orderId, String channel, String details) {
+        record(new OrderEvent(orderId, OrderEvent.NOTIFICATION_SENT, null, channel, details));
+    }
+
+    // Движение остатка по варианту: delta < 0 - списание, delta > 0 - возврат
+    public void recordStockMovement(Long orderId, Long variantId, String size, int delta) {
+        String details = "variantId=" + variantId + ", size=" + size;
+        record(new OrderEvent(orderId, OrderEvent.STOCK_MOVEMENT, null, String.valueOf(delta), details));
+    }
+
+    // Внутри транзакции событие попадает в буфер только после коммита,
+    // чтобы откаченный заказ не оставлял следов в журнале
+    public void record(OrderEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(OrderEvent event) {
+        if (!buffer.offer(event)) {
+            // Буфер переполнен - пишем напрямую, чтобы не терять события.
+            // Отдельная транзакция: в afterCommit текущая уже зафиксирована и новых вставок не сбросит
+            log.warn("Буфер событий заказов переполнен, синхронная запись события {} для заказа #{}",
+                    event.getType(), event.getOrderId());
+            try {
+                requiresNew.executeWithoutResult(status -> orderEventRepository.save(event));
+            } catch (Exception e) {
+                event.setId(null);
+                log.error("Событие заказа потеряно: {} ({})", describe(event), e.getMessage());
+            }
+        }
+    }
+
+    // Пакетная запись накопленных событий
+    @Scheduled(fixedDelayString = "${app.order-events.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        // Сначала пачка, не записанная в прошлый раз; при новой ошибке остальное ждет следующего запуска
+        if (!failedBatch.isEmpty() && !write(failedBatch)) {
+            return;
+        }
+        List<OrderEvent> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        while (buffer.drainTo(batch, FLUSH_BATCH_SIZE) > 0) {
+            if (!write(batch)) {
+                return;
+            }
+            batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        }
+    }
+
+    // false - пачка оставлена для повтора; после MAX_FLUSH_ATTEMPTS она выводится в лог по событию и сбрасывается
+    private boolean write(List<OrderEvent> batch) {
+        try {
+            orderEventRepository.saveAll(batch);
+            log.debug("Записано {} событий заказов", batch.size());
+            failedBatch = List.of();
+            failedAttempts = 0;
+            return true;
+        } catch (Exception e) {
+            // id уже выданы из последовательности, но строки откатились - повтор должен вставлять заново
+            batch.forEach(event -> event.setId(null));
+            failedAttempts = failedBatch == batch ? failedAttempts + 1 : 1;
+            if (failedAttempts < MAX_FLUSH_ATTEMPTS) {
+                log.error("Ошибка записи {} событий заказов (попытка {} из {}): {}",
+                        batch.size(), failedAttempts, MAX_FLUSH_ATTEMPTS, e.getMessage());
+                failedBatch = batch;
+                return false;
+            }
+            log.error("Не удалось записать {} событий заказов за {} попыток, события потеряны: {}",
+                    batch.size(), MAX_FLUSH_ATTEMPTS, e.getMessage());
+            batch.forEach(event -> log.error("Событие заказа потеряно: {}", describe(event)));
+            failedBatch = List.of();
+            failedAttempts = 0;
+            return true;
+        }
+    }
+
+    private static String describe(OrderEvent event) {
+        return "order=" + event.getOrderId() + ", type=" + event.getType() + ", old=" + event.getOldValue()
+                + ", new=" + event.getNewValue() + ", details=" + event.getDetails()
+                + ", createdAt=" + event.getCreatedAt();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        flush();
+        // БД недоступна и при остановке - хотя бы оставляем события в логе
+        List<OrderEvent> lost = new ArrayList<>(failedBatch);
+        buffer.drainTo(lost);
+        lost.forEach(event -> log.error("Событие заказа не записано при остановке: {}", describe(event)));
+    }
+
+    // История заказа
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getEventsForOrder(Long orderId) {
+        return orderEventRepository.findByOrderIdOrderByCreatedAtAsc(orderId);
+    }
+
+    // История статусов заказа (для покупателя)
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getStatusHistory(Long orderId) {
+        return orderEventRepository.findByOrderIdAndTypeInOrderByCreatedAtAsc(orderId,
+                List.of(OrderEvent.ORDER_CREATED, OrderEvent.STATUS_CHANGED));
+    }
+
+    // События за период
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getEventsBetween(LocalDateTime from, LocalDateTime to) {
+        return orderEventRepository.findByCreatedAtBetweenOrderByCreatedAtAsc(from, to);
+    }
+}
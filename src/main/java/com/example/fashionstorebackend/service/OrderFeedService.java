@@ -0,0 +1,214 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Живая лента заказов для админки (Server-Sent Events).
+// Каждое подключение получает свой ограниченный буфер: медленный клиент
+// отключается и переподключается с Last-Event-ID, не тормозя остальных.
+@Slf4j
+@Service
+public class OrderFeedService {
+
+    public static final String NEW_ORDER = "NEW_ORDER";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String RESYNC = "RESYNC";
+
+    private static final int REPLAY_CAPACITY = 500;
+    private static final int SUBSCRIBER_BUFFER_CAPACITY = 100;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long RECONNECT_DELAY_MS = 3000L;
+
+    // Последние события для возобновления по Last-Event-ID (guarded by itself)
+    private final Deque<FeedEvent> replay = new ArrayDeque<>(REPLAY_CAPACITY);
+    private long lastEventId = 0;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public record FeedEvent(long id, String type, Map<String, Object> data) {}
+
+    // Новый заказ
+    public void publishNewOrder(Order order) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("orderId", order.getId());
+        data.put("orderNumber", order.getOrderNumber());
+        data.put("status", order.getStatus());
+        data.put("totalAmount", order.getTotalAmount());
+        data.put("customerName", order.getCustomerName());
+        data.put("createdAt", order.getCreatedAt());
+        publish(NEW_ORDER, data);
+    }
+
+    // Смена статуса заказа
+    public void publishStatusChange(Order order, String oldStatus) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("orderId", order.getId());
+        data.put("orderNumber", order.getOrderNumber());
+        data.put("oldStatus", oldStatus);
+        data.put("status", order.getStatus());
+        publish(STATUS_CHANGED, data);
+    }
+
+    // Внутри транзакции событие уходит клиентам только после коммита
+    private void publish(String type, Map<String, Object> data) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(type, data);
+                }
+            });
+        } else {
+            broadcast(type, data);
+        }
+    }
+
+    private void broadcast(String type, Map<String, Object> data) {
+        synchronized (replay) {
+            FeedEvent event = new FeedEvent(++lastEventId, type, data);
+            if (replay.size() == REPLAY_CAPACITY) {
+                replay.removeFirst();
+            }
+            replay.addLast(event);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // Подключение клиента; lastSeenEventId - значение заголовка Last-Event-ID при переподключении
+    public SseEmitter subscribe(Long lastSeenEventId) {
+        return subscribe(lastSeenEventId, new SseEmitter(EMITTER_TIMEOUT_MS));
+    }
+
+    SseEmitter subscribe(Long lastSeenEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (replay) {
+            if (lastSeenEventId != null) {
+                long oldestAvailable = replay.isEmpty() ? lastEventId + 1 : replay.getFirst().id();
+                if (lastSeenEventId + 1 < oldestAvailable || lastSeenEventId > lastEventId
+                        || lastEventId - lastSeenEventId > SUBSCRIBER_BUFFER_CAPACITY) {
+                    // Пропущенные события уже вытеснены (или сервер перезапущен), либо их больше,
+                    // чем помещается в буфер подключения - клиент перечитает список
+                    subscriber.offer(new FeedEvent(lastEventId, RESYNC, Map.of()));
+                } else {
+                    for (FeedEvent event : replay) {
+                        if (event.id() > lastSeenEventId) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        log.info("Подключен клиент ленты заказов, всего подключений: {}", subscribers.size());
+        return emitter;
+    }
+
+    // Heartbeat не дает прокси и браузеру закрыть простаивающее соединение
+    @Scheduled(fixedRateString = "${app.order-feed.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(null);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private class Subscriber {
+
+        private static final FeedEvent HEARTBEAT = new FeedEvent(-1, "", Map.of());
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // null - heartbeat
+        void offer(FeedEvent event) {
+            if (!queue.offer(event != null ? event : HEARTBEAT)) {
+                // Клиент не успевает читать - отключаем, он вернется с Last-Event-ID
+                log.warn("Буфер клиента ленты заказов переполнен, соединение закрыто");
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                FeedEvent event;
+                while ((event = queue.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.id()))
+                                .name(event.type())
+                                .reconnectTime(RECONNECT_DELAY_MS)
+                                .data(event.data(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                queue.clear();
+                log.debug("Клиент ленты заказов отключился: {}", e.getMessage());
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Событие могло прийти между последним poll и сбросом флага
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
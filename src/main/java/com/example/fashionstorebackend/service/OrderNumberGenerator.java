@@ -0,0 +1,110 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.OrderNumberBlock;
+import com.example.fashionstorebackend.repository.OrderNumberBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Генератор номеров заказов без коллизий.
+// Инстанс приложения забирает из БД блок значений счетчика (один запрос на блок),
+// дальше номера выдаются из памяти без блокировок. Значение счетчика переводится
+// обратимой перестановкой 40 бит в 8 символов алфавита, поэтому разные значения
+// всегда дают разные номера, а соседние номера не выглядят последовательными.
+@Slf4j
+@Service
+public class OrderNumberGenerator {
+
+    static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    static final int LENGTH = 8;
+
+    private static final String BLOCK_NAME = "order_number";
+    private static final int BITS = 40; // 8 символов по 5 бит
+    private static final long MASK = (1L << BITS) - 1;
+    private static final long MULTIPLIER_1 = 0x9E3779B97FL; // нечетные - обратимы по модулю 2^40
+    private static final long MULTIPLIER_2 = 0xC2B2AE3D27L;
+
+    private final OrderNumberBlockRepository blockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.order-number.block-size:100}")
+    private int blockSize;
+
+    private final AtomicReference<Block> current = new AtomicReference<>();
+
+    private record Block(AtomicLong cursor, long end) {}
+
+    public OrderNumberGenerator(OrderNumberBlockRepository blockRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.blockRepository = blockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Блок выдается в отдельной короткой транзакции, независимо от транзакции заказа
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String next() {
+        while (true) {
+            Block block = current.get();
+            if (block != null) {
+                long value = block.cursor().getAndIncrement();
+                if (value < block.end()) {
+                    return encode(value);
+                }
+            }
+            refill(block);
+        }
+    }
+
+    // Новый блок запрашивается одним потоком; остальные дождутся его и продолжат без БД
+    private synchronized void refill(Block exhausted) {
+        if (current.get() != exhausted) {
+            return;
+        }
+        long start = allocateBlock();
+        current.set(new Block(new AtomicLong(start), start + blockSize));
+        log.debug("Выделен блок номеров заказов [{}, {})", start, start + blockSize);
+    }
+
+    private long allocateBlock() {
+        try {
+            return transactionTemplate.execute(status -> reserveBlock());
+        } catch (DataIntegrityViolationException e) {
+            // Другой инстанс одновременно создал строку счетчика - повторяем с блокировкой
+            return transactionTemplate.execute(status -> reserveBlock());
+        }
+    }
+
+    private long reserveBlock() {
+        OrderNumberBlock counter = blockRepository.findForUpdate(BLOCK_NAME).orElse(null);
+        if (counter == null) {
+            blockRepository.saveAndFlush(new OrderNumberBlock(BLOCK_NAME, 1L + blockSize));
+            return 1L;
+        }
+        long start = counter.getNextValue();
+        counter.setNextValue(start + blockSize);
+        return start;
+    }
+
+    // Обратимая перестановка 40-битного значения и запись в base32 нашим алфавитом
+    static String encode(long value) {
+        long x = value & MASK;
+        x = (x * MULTIPLIER_1) & MASK;
+        x ^= x >>> 19;
+        x = (x * MULTIPLIER_2) & MASK;
+        x ^= x >>> 21;
+
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (x & 31));
+            x >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.example.fashionstorebackend.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Сборщик неиспользуемых картинок в S3: брошенные в форме админки загрузки, файлы неудачных
+// сохранений и неудавшихся удалений.
+// 1. Ссылки товаров (Product.imageUrl и product_images) читаются из БД потоком в фильтр Блума.
+// 2. Листинг бакета идет постранично; объект удаляется, если его нет в фильтре и он старше
+//    app.s3.gc.grace-hours (загрузку из еще открытой формы не трогаем).
+// Фильтр не дает ложноотрицательных ответов - используемый файл не удаляется никогда, а
+// ложноположительный (1%) только оставляет мусор до следующего запуска. Памяти нужно ~1.2 байта
+// на ссылку, сколько бы ни было объектов в бакете.
+@Slf4j
+@Service
+public class OrphanImageCollector {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int PAGE_SIZE = 1000;
+    private static final int SAMPLE_SIZE = 100;
+
+    private final AmazonS3 amazonS3;
+    private final S3Service s3Service;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${beget.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${app.s3.gc.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.s3.gc.prefix:products/}")
+    private String prefix;
+
+    @Value("${app.s3.gc.grace-hours:48}")
+    private long graceHours;
+
+    public OrphanImageCollector(AmazonS3 amazonS3, S3Service s3Service, ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.amazonS3 = amazonS3;
+        this.s3Service = s3Service;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // sample - первые SAMPLE_SIZE найденных ключей, для проверки в режиме dryRun
+    public record Result(long scanned, long referenced, long orphans, List<String> sample, int deleted, int failed,
+                         long elapsedMs) {}
+
+    @Scheduled(cron = "${app.s3.gc.cron:0 30 4 * * *}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(false);
+        } catch (Exception e) {
+            log.error("Orphan image collection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // dryRun - только найти кандидатов, ничего не удаляя
+    public Result collect(boolean dryRun) {
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+
+        KeyFilter referenced = loadReferencedKeys();
+
+        List<String> sample = new ArrayList<>();
+        long orphans = 0;
+        long scanned = 0;
+        int deleted = 0;
+        int failed = 0;
+        ObjectListing listing = amazonS3.listObjects(new ListObjectsRequest()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withMaxKeys(PAGE_SIZE));
+        while (true) {
+            List<String> pageOrphans = new ArrayList<>();
+            for (S3ObjectSummary object : listing.getObjectSummaries()) {
+                scanned++;
+                if (object.getLastModified().toInstant().isBefore(cutoff)
+                        && !referenced.mightContain(imageId(object.getKey()))) {
+                    pageOrphans.add(object.getKey());
+                }
+            }
+            orphans += pageOrphans.size();
+            for (int i = 0; i < pageOrphans.size() && sample.size() < SAMPLE_SIZE; i++) {
+                sample.add(pageOrphans.get(i));
+            }
+            if (!dryRun && !pageOrphans.isEmpty()) {
+                S3Service.DeleteResult result = s3Service.deleteKeys(pageOrphans);
+                deleted += result.deleted();
+                failed += result.failedKeys().size();
+            }
+            if (!listing.isTruncated()) {
+                break;
+            }
+            listing = amazonS3.listNextBatchOfObjects(listing);
+        }
+
+        Result result = new Result(scanned, referenced.count(), orphans, sample, deleted, failed,
+                System.currentTimeMillis() - start);
+        log.info("Orphan images in {}: scanned {}, referenced {}, orphans {}, deleted {}, failed {}{} in {} ms",
+                prefix, scanned, result.referenced(), orphans, deleted, failed, dryRun ? " (dry run)" : "",
+                result.elapsedMs());
+        return result;
+    }
+
+    private KeyFilter loadReferencedKeys() {
+        return readOnlyTransaction.execute(status -> {
+            long expected = productRepository.count() + productRepository.countAdditionalImages();
+            KeyFilter filter = new KeyFilter(expected, FALSE_POSITIVE_RATE);
+            try (Stream<String> urls = productRepository.streamImageUrls()) {
+                urls.forEach(url -> filter.add(imageId(s3Service.extractKeyFromUrl(url))));
+            }
+            try (Stream<String> urls = productRepository.streamAdditionalImageUrls()) {
+                urls.forEach(url -> filter.add(imageId(s3Service.extractKeyFromUrl(url))));
+            }
+            return filter;
+        });
+    }
+
+    // Общий идентификатор оригинала и его копий: products/abc.png и products/abc_card.jpg -> products/abc
+    static String imageId(String key) {
+        int slash = key.lastIndexOf('/');
+        int dot = key.lastIndexOf('.');
+        String base = dot > slash ? key.substring(0, dot) : key;
+        for (ImageRenditionService.Size size : ImageRenditionService.SIZES) {
+            if (base.endsWith("_" + size.name())) {
+                return base.substring(0, base.length() - size.name().length() - 1);
+            }
+        }
+        return base;
+    }
+
+    // Фильтр Блума по строкам: k позиций из двух половин 64-битного хеша (схема Кирша-Митценмахера)
+    static final class KeyFilter {
+
+        private final long[] bits;
+        private final int bitCount;
+        private final int hashCount;
+        private long count;
+
+        KeyFilter(long expected, double falsePositiveRate) {
+            long n = Math.max(1000, expected);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, m);
+            this.bits = new long[(bitCount + 63) / 64];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            count++;
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long count() {
+            return count;
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+            // Перемешивание (fmix64 из MurmurHash3): у FNV-1a старшие биты распределены хуже младших
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Параллельная загрузка нескольких картинок в S3.
+// Каждый файл грузится в своем виртуальном потоке, но одновременно - не больше
+// app.s3.upload-concurrency файлов на все запросы сразу: это ограничивает и память
+// (файл и его копии держатся в памяти целиком), и соединения к S3.
+@Slf4j
+@Service
+public class ParallelUploadService {
+
+    private final S3Service s3Service;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ParallelUploadService(S3Service s3Service,
+                                 @Value("${app.s3.upload-concurrency:4}") int concurrency) {
+        this.s3Service = s3Service;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    // Результат по одному файлу: manifest или error
+    public record FileResult(String originalName, long size, ImageManifestDTO manifest, String error) {
+
+        public boolean isSuccess() {
+            return manifest != null;
+        }
+    }
+
+    // Загрузка пачки; результаты - в порядке файлов, cancel() прерывает незавершенные
+    public static final class Batch {
+
+        private final List<MultipartFile> files;
+        private final List<CompletableFuture<FileResult>> results;
+        private final List<Future<?>> tasks;
+        private final AtomicBoolean cancelled;
+
+        private Batch(List<MultipartFile> files, List<CompletableFuture<FileResult>> results, List<Future<?>> tasks,
+                      AtomicBoolean cancelled) {
+            this.files = files;
+            this.results = results;
+            this.tasks = tasks;
+            this.cancelled = cancelled;
+        }
+
+        public CompletableFuture<List<FileResult>> results() {
+            return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+        }
+
+        // Еще не начатые загрузки не стартуют, идущие прерываются (SDK S3 реагирует на interrupt)
+        public void cancel() {
+            // Флаг до отмены задач: иначе разрешение прерванной загрузки успевает взять следующая
+            cancelled.set(true);
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).cancel(true);
+                results.get(i).complete(cancelled(files.get(i)));
+            }
+        }
+    }
+
+    public Batch upload(List<MultipartFile> files, String folder) {
+        List<CompletableFuture<FileResult>> results = new ArrayList<>(files.size());
+        List<Future<?>> tasks = new ArrayList<>(files.size());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        for (MultipartFile file : files) {
+            CompletableFuture<FileResult> result = new CompletableFuture<>();
+            results.add(result);
+            tasks.add(executor.submit(() -> result.complete(uploadOne(file, folder, cancelled))));
+        }
+        return new Batch(files, results, tasks, cancelled);
+    }
+
+    private FileResult uploadOne(MultipartFile file, String folder, AtomicBoolean cancelled) {
+        String name = file.getOriginalFilename();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return cancelled(file);
+        }
+        try {
+            if (cancelled.get()) {
+                return cancelled(file);
+            }
+            return new FileResult(name, file.getSize(), s3Service.uploadImage(file, folder), null);
+        } catch (Exception e) {
+            log.error("Error uploading file {}: {}", name, e.getMessage());
+            return new FileResult(name, file.getSize(), null, "Ошибка загрузки " + name + ": " + e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static FileResult cancelled(MultipartFile file) {
+        return new FileResult(file.getOriginalFilename(), file.getSize(), null,
+                "Загрузка " + file.getOriginalFilename() + " отменена");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
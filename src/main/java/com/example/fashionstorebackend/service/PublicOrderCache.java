@@ -0,0 +1,69 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.dto.OrderDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Короткоживущий кеш публичного представления заказа (страница заказа по ссылке из письма).
+// Ключ - токен доступа; запись сбрасывается при смене статуса заказа.
+// LinkedHashMap в порядке доступа: при переполнении вытесняется одна давно не запрошенная запись
+@Service
+public class PublicOrderCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    @Value("${app.public-order-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private record Entry(OrderDTO view, long expiresAt) {}
+
+    public synchronized OrderDTO get(String accessToken) {
+        Entry entry = entries.get(accessToken);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(accessToken);
+            return null;
+        }
+        return entry.view();
+    }
+
+    public synchronized void put(String accessToken, OrderDTO view) {
+        entries.put(accessToken, new Entry(view, System.currentTimeMillis() + ttlSeconds * 1000));
+    }
+
+    // Внутри транзакции запись сбрасывается после коммита, иначе параллельный запрос
+    // успел бы снова закешировать еще не измененный заказ
+    public void evict(String accessToken) {
+        if (accessToken == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(accessToken);
+                }
+            });
+        } else {
+            remove(accessToken);
+        }
+    }
+
+    private synchronized void remove(String accessToken) {
+        entries.remove(accessToken);
+    }
+}
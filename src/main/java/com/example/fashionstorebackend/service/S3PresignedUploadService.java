@@ -0,0 +1,139 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Загрузка картинок из браузера админки напрямую в S3 по presigned PUT URL - байты не идут через приложение.
+// 1. presign: браузер сообщает SHA-256 файла, ключ в папке товара строится из него. Если такая
+//    картинка уже есть, загружать ничего не нужно - сразу возвращается ее manifest. Иначе выдается
+//    подписанный URL; в подпись входят Content-Type и Content-Length, поэтому S3 примет только
+//    файл заявленного типа и размера.
+// 2. Браузер делает PUT файла по URL с выданными заголовками.
+// 3. complete: приложение проверяет объект через HEAD (размер, тип), сверяет содержимое с хешем,
+//    строит уменьшенные копии и возвращает manifest - дальше URL сохраняется в товаре как обычно.
+@Slf4j
+@Service
+public class S3PresignedUploadService {
+
+    public static final long MAX_SIZE = 10 * 1024 * 1024L;
+
+    // Допустимые Content-Type картинок (и для потоковой загрузки через S3FileController)
+    public static final Set<String> CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final Pattern FOLDER = Pattern.compile("[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*");
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern KEY = Pattern.compile(
+            "[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*/([0-9a-f]{64})\\.(jpg|png|gif|webp)");
+
+    private final AmazonS3 amazonS3;
+    private final S3Service s3Service;
+    private final String bucketName;
+    private final Duration ttl;
+
+    public S3PresignedUploadService(AmazonS3 amazonS3, S3Service s3Service,
+                                    @Value("${beget.s3.bucket-name}") String bucketName,
+                                    @Value("${app.s3.presign-ttl-minutes:15}") long ttlMinutes) {
+        this.amazonS3 = amazonS3;
+        this.s3Service = s3Service;
+        this.bucketName = bucketName;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    // headers - заголовки, которые браузер обязан отправить с PUT (они подписаны);
+    // existing - картинка уже загружена, uploadUrl в этом случае нет
+    public record PresignedUpload(String key, String uploadUrl, Map<String, String> headers, Instant expiresAt,
+                                  ImageManifestDTO existing) {}
+
+    public PresignedUpload presign(String folder, String fileName, String contentType, long size, String sha256) {
+        if (folder == null || !FOLDER.matcher(folder).matches()) {
+            throw new IllegalArgumentException("Недопустимая папка");
+        }
+        if (!CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("Недопустимый формат файла. Разрешены: jpg, jpeg, png, gif, webp");
+        }
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Файл слишком большой. Максимум 10MB");
+        }
+
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Некорректный SHA-256 файла");
+        }
+
+        String key = folder + "/" + S3Service.contentFileName(sha256, fileName);
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Недопустимый формат файла. Разрешены: jpg, jpeg, png, gif, webp");
+        }
+        ImageManifestDTO existing = s3Service.reuseImage(key);
+        if (existing != null) {
+            log.info("Presign skipped, image {} is already stored", key);
+            return new PresignedUpload(key, null, Map.of(), null, existing);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", contentType);
+        headers.put("Content-Length", String.valueOf(size));
+        headers.put("Cache-Control", S3Service.IMMUTABLE_CACHE_CONTROL);
+
+        Instant expiresAt = Instant.now().plus(ttl);
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, key, HttpMethod.PUT)
+                .withExpiration(Date.from(expiresAt))
+                .withContentType(contentType);
+        request.putCustomRequestHeader("Content-Length", headers.get("Content-Length"));
+        request.putCustomRequestHeader("Cache-Control", headers.get("Cache-Control"));
+
+        String url = amazonS3.generatePresignedUrl(request).toString();
+        log.info("Presigned upload {} ({} bytes, {})", key, size, contentType);
+        return new PresignedUpload(key, url, headers, expiresAt, null);
+    }
+
+    // Регистрация загруженного файла: объект должен быть в S3, соответствовать ограничениям
+    // и хешу из ключа, иначе он удаляется
+    public ImageManifestDTO complete(String key) throws IOException {
+        Matcher matcher = key == null ? null : KEY.matcher(key);
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Недопустимый ключ файла");
+        }
+        ImageManifestDTO existing = s3Service.reuseImage(key);
+        if (existing != null) {
+            return existing; // повторный complete или такую же картинку уже загрузили
+        }
+
+        ObjectMetadata metadata;
+        try {
+            metadata = amazonS3.getObjectMetadata(bucketName, key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                throw new IllegalArgumentException("Файл не загружен в хранилище");
+            }
+            throw e;
+        }
+
+        if (metadata.getContentLength() > MAX_SIZE || !CONTENT_TYPES.contains(metadata.getContentType())) {
+            amazonS3.deleteObject(bucketName, key);
+            log.warn("Rejected direct upload {}: {} bytes, {}", key, metadata.getContentLength(),
+                    metadata.getContentType());
+            throw new IllegalArgumentException("Файл не соответствует ограничениям и удален");
+        }
+
+        ImageManifestDTO manifest = s3Service.registerStoredImage(key, matcher.group(2));
+        log.info("Registered direct upload {} ({} bytes) with {} renditions", key, metadata.getContentLength(),
+                manifest.getRenditions().size());
+        return manifest;
+    }
+}
@@ -1,27 +1,68 @@
 package com.example.fashionstorebackend.service;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import com.example.fashionstorebackend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @Service
 public class S3Service {
 
     private static final Logger log = LoggerFactory.getLogger(S3Service.class); // Добавляем логгер
 
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final int DELETE_BATCH_SIZE = 1000; // максимум ключей в одном DeleteObjects
+    private static final int DELETE_PARALLELISM = 4;
+    private static final int MAX_DELETE_ATTEMPTS = 3;
+    private static final long DELETE_RETRY_DELAY_MS = 200;
+
+    // Описание копий в метаданных оригинала: "thumb:160x213:5120,card:480x640:31200"
+    private static final String RENDITIONS_METADATA = "renditions";
+    private static final String NO_RENDITIONS = "none";
+
     @Autowired
     private AmazonS3 amazonS3;
 
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    @Autowired
+    private S3StreamingUploader streamingUploader;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ExecutorService deleteExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @Value("${beget.s3.bucket-name}")
     private String bucketName;
 
@@ -45,68 +86,385 @@ public class S3Service {
         }
     }
 
-    // Удаление файла из S3
+    // Загрузка картинки: оригинал и уменьшенные копии (ImageRenditionService) рядом с ним.
+    // Ключ - SHA-256 содержимого: одна и та же фотография (для нескольких цветов, повторная загрузка
+    // после правки) хранится один раз, а ее URL кешируется браузером и CDN навсегда.
+    // Оригинал кладется последним и хранит описание копий в метаданных: есть оригинал - есть и копии
+    public ImageManifestDTO uploadImage(MultipartFile file, String folder) throws IOException {
+        byte[] original = file.getBytes();
+        String s3Key = folder + "/" + contentFileName(sha256Hex(original), file.getOriginalFilename());
+
+        ImageManifestDTO existing = reuseImage(s3Key);
+        if (existing != null) {
+            log.info("Image {} is already stored, upload skipped", s3Key);
+            return existing;
+        }
+
+        List<ImageManifestDTO.RenditionDTO> renditions = List.of();
+        try {
+            renditions = putRenditions(s3Key, imageRenditionService.render(original));
+        } catch (IOException e) {
+            // Витрина покажет оригинал, просто без уменьшенных копий
+            log.warn("Не удалось создать копии картинки {}: {}", s3Key, e.getMessage());
+        }
+        putObject(s3Key, original, imageMetadata(file.getContentType(), renditions));
+
+        log.info("Uploaded image {} ({} bytes) with {} renditions", s3Key, original.length, renditions.size());
+        return manifest(s3Key, renditions);
+    }
+
+    public record StreamedImage(ImageManifestDTO manifest, long size, String sha256) {}
+
+    // Потоковая загрузка картинки из тела запроса (S3StreamingUploader) - без буфера на весь файл.
+    // Хеш известен только в конце, поэтому файл грузится во временный ключ и копируется
+    // в ключ по содержимому внутри S3; копии строятся из временного объекта, читаемого потоком
+    public StreamedImage uploadImageStream(InputStream body, String originalFilename, String contentType,
+                                           String folder, long maxBytes) throws IOException {
+        String tempKey = folder + "/tmp-" + generateFileName(originalFilename);
+        S3StreamingUploader.Upload upload = streamingUploader.upload(body, tempKey, contentType, maxBytes);
+        String s3Key = folder + "/" + contentFileName(upload.sha256(), originalFilename);
+
+        try {
+            ImageManifestDTO manifest = reuseImage(s3Key);
+            if (manifest == null) {
+                List<ImageManifestDTO.RenditionDTO> renditions = List.of();
+                try (S3Object object = amazonS3.getObject(bucketName, tempKey)) {
+                    renditions = putRenditions(s3Key, imageRenditionService.render(object.getObjectContent()));
+                } catch (IOException e) {
+                    log.warn("Не удалось создать копии картинки {}: {}", s3Key, e.getMessage());
+                }
+                amazonS3.copyObject(new CopyObjectRequest(bucketName, tempKey, bucketName, s3Key)
+                        .withNewObjectMetadata(imageMetadata(contentType, renditions)));
+                manifest = manifest(s3Key, renditions);
+            } else {
+                log.info("Image {} is already stored, streamed copy dropped", s3Key);
+            }
+            return new StreamedImage(manifest, upload.size(), upload.sha256());
+        } finally {
+            amazonS3.deleteObject(bucketName, tempKey);
+        }
+    }
+
+    // Завершение прямой загрузки из браузера (S3PresignedUploadService): объект уже лежит по ключу из хеша.
+    // Содержимое сверяется с хешем по ходу чтения для копий; при несовпадении объект удаляется
+    ImageManifestDTO registerStoredImage(String s3Key, String sha256) throws IOException {
+        MessageDigest digest = sha256Digest();
+        List<ImageRenditionService.Rendition> rendered = List.of();
+        String contentType;
+        try (S3Object object = amazonS3.getObject(bucketName, s3Key);
+             DigestInputStream in = new DigestInputStream(object.getObjectContent(), digest)) {
+            contentType = object.getObjectMetadata().getContentType();
+            try {
+                rendered = imageRenditionService.render(in);
+            } catch (IOException e) {
+                log.warn("Не удалось создать копии картинки {}: {}", s3Key, e.getMessage());
+            }
+            in.transferTo(OutputStream.nullOutputStream()); // декодер мог не дочитать файл до конца
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(sha256)) {
+            amazonS3.deleteObject(bucketName, s3Key);
+            throw new IllegalArgumentException("Содержимое файла не совпадает с заявленным хешем");
+        }
+
+        List<ImageManifestDTO.RenditionDTO> renditions = putRenditions(s3Key, rendered);
+        // Копирование объекта в себя с новыми метаданными - отметка о завершенной загрузке
+        amazonS3.copyObject(new CopyObjectRequest(bucketName, s3Key, bucketName, s3Key)
+                .withNewObjectMetadata(imageMetadata(contentType, renditions)));
+        return manifest(s3Key, renditions);
+    }
+
+    // То же, что findImage, но найденная картинка отдается как новая загрузка: оригинал и копии
+    // копируются в себя, чтобы обновить LastModified. Иначе старый брошенный объект с тем же
+    // содержимым OrphanImageCollector удалил бы, пока форма админки с этим URL еще открыта
+    ImageManifestDTO reuseImage(String s3Key) {
+        ImageManifestDTO manifest = findImage(s3Key);
+        if (manifest != null) {
+            for (ImageManifestDTO.RenditionDTO rendition : manifest.getRenditions()) {
+                touch(ImageRenditionService.renditionKey(s3Key, rendition.getName()));
+            }
+            touch(s3Key);
+        }
+        return manifest;
+    }
+
+    // Копирование объекта в себя с теми же Content-Type, Cache-Control и пользовательскими метаданными
+    private void touch(String s3Key) {
+        ObjectMetadata current;
+        try {
+            current = amazonS3.getObjectMetadata(bucketName, s3Key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                log.warn("Image copy {} is missing, nothing to refresh", s3Key);
+                return;
+            }
+            throw e;
+        }
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (current.getContentType() != null) {
+            metadata.setContentType(current.getContentType());
+        }
+        if (current.getCacheControl() != null) {
+            metadata.setCacheControl(current.getCacheControl());
+        }
+        metadata.setUserMetadata(current.getUserMetadata());
+        amazonS3.copyObject(new CopyObjectRequest(bucketName, s3Key, bucketName, s3Key)
+                .withNewObjectMetadata(metadata));
+    }
+
+    // Уже загруженная полностью картинка или null: нет объекта или в нем нет описания копий
+    ImageManifestDTO findImage(String s3Key) {
+        ObjectMetadata metadata;
+        try {
+            metadata = amazonS3.getObjectMetadata(bucketName, s3Key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+        String description = metadata.getUserMetaDataOf(RENDITIONS_METADATA);
+        if (description == null) {
+            return null;
+        }
+
+        List<ImageManifestDTO.RenditionDTO> renditions = new ArrayList<>();
+        if (!description.equals(NO_RENDITIONS)) {
+            for (String item : description.split(",")) {
+                String[] parts = item.split("[:x]"); // thumb:160x213:5120
+                renditions.add(new ImageManifestDTO.RenditionDTO(parts[0],
+                        baseUrl + "/" + ImageRenditionService.renditionKey(s3Key, parts[0]),
+                        Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Long.parseLong(parts[3])));
+            }
+        }
+        return manifest(s3Key, renditions);
+    }
+
+    private ImageManifestDTO manifest(String s3Key, List<ImageManifestDTO.RenditionDTO> renditions) {
+        return new ImageManifestDTO(baseUrl + "/" + s3Key, new ArrayList<>(renditions));
+    }
+
+    private List<ImageManifestDTO.RenditionDTO> putRenditions(String s3Key,
+                                                              List<ImageRenditionService.Rendition> renditions) {
+        List<ImageManifestDTO.RenditionDTO> result = new ArrayList<>();
+        for (ImageRenditionService.Rendition rendition : renditions) {
+            String renditionKey = ImageRenditionService.renditionKey(s3Key, rendition.name());
+            putObject(renditionKey, rendition.data(), imageMetadata(ImageRenditionService.CONTENT_TYPE, null));
+            result.add(new ImageManifestDTO.RenditionDTO(rendition.name(), baseUrl + "/" + renditionKey,
+                    rendition.width(), rendition.height(), (long) rendition.data().length));
+        }
+        return result;
+    }
+
+    // renditions == null - объект сам является копией
+    private static ObjectMetadata imageMetadata(String contentType, List<ImageManifestDTO.RenditionDTO> renditions) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+        if (renditions != null) {
+            metadata.addUserMetadata(RENDITIONS_METADATA, renditions.isEmpty() ? NO_RENDITIONS : renditions.stream()
+                    .map(r -> r.getName() + ":" + r.getWidth() + "x" + r.getHeight() + ":" + r.getSize())
+                    .collect(Collectors.joining(",")));
+        }
+        return metadata;
+    }
+
+    private void putObject(String s3Key, byte[] data, ObjectMetadata metadata) {
+        metadata.setContentLength(data.length);
+        amazonS3.putObject(bucketName, s3Key, new ByteArrayInputStream(data), metadata);
+    }
+
+    // Результат удаления: сколько ключей удалено и какие не удалось удалить даже после повторов
+    public record DeleteResult(int deleted, List<String> failedKeys) {
+
+        public boolean isSuccess() {
+            return failedKeys.isEmpty();
+        }
+
+        private DeleteResult plus(DeleteResult other) {
+            List<String> failed = new ArrayList<>(failedKeys);
+            failed.addAll(other.failedKeys());
+            return new DeleteResult(deleted + other.deleted(), failed);
+        }
+    }
+
+    // Удаление файла из S3 (вместе с уменьшенными копиями, если они есть)
     public void deleteFile(String fileUrl) {
-        // Извлекаем путь из URL
         String s3Key = extractKeyFromUrl(fileUrl);
-        amazonS3.deleteObject(new DeleteObjectRequest(bucketName, s3Key));
+        if (unreferenced(List.of(fileUrl)).isEmpty()) {
+            log.info("File {} is still used by a product, not deleted", s3Key);
+            return;
+        }
+        DeleteResult result = deleteKeys(withRenditionKeys(List.of(fileUrl)));
+        if (!result.isSuccess()) {
+            throw new IllegalStateException("Не удалось удалить из S3: " + result.failedKeys());
+        }
         log.info("Deleted file from S3: {}", s3Key);
     }
 
-    // Удаление нескольких файлов
-    public void deleteMultipleFiles(List<String> fileUrls) {
+    // Удаление нескольких файлов: все ключи (с копиями) уходят пакетами DeleteObjects
+    // по DELETE_BATCH_SIZE, а не запросом на каждый файл
+    public DeleteResult deleteMultipleFiles(List<String> fileUrls) {
+        if (fileUrls == null || fileUrls.isEmpty()) return new DeleteResult(0, List.of());
+
+        List<String> unreferenced = unreferenced(fileUrls);
+        DeleteResult result = deleteKeys(withRenditionKeys(unreferenced));
+        log.info("Deleted {} files from S3 ({} keys, {} failed, {} still used by products)", unreferenced.size(),
+                result.deleted(), result.failedKeys().size(), fileUrls.size() - unreferenced.size());
+        return result;
+    }
+
+    // Картинки с ключом по содержимому бывают общими для нескольких товаров:
+    // удалять можно только те, на которые больше не ссылается ни один товар
+    private List<String> unreferenced(List<String> fileUrls) {
+        Set<String> referenced = new HashSet<>(productRepository.findImageUrlsIn(fileUrls));
+        referenced.addAll(productRepository.findAdditionalImageUrlsIn(fileUrls));
+        return fileUrls.stream().filter(url -> !referenced.contains(url)).distinct().toList();
+    }
+
+    // Удаление картинок после коммита транзакции, в фоне: при откате транзакции файлы остаются
+    // на месте. Если удаление не удалось, файлы подберет OrphanImageCollector
+    public void deleteAfterCommit(List<String> fileUrls) {
         if (fileUrls == null || fileUrls.isEmpty()) return;
 
-        int deletedCount = 0;
-        for (String fileUrl : fileUrls) {
+        Runnable delete = () -> deleteExecutor.execute(() -> {
             try {
-                deleteFile(fileUrl);
-                deletedCount++;
+                deleteMultipleFiles(fileUrls);
             } catch (Exception e) {
-                log.error("Error deleting file {}: {}", fileUrl, e.getMessage());
-                // Продолжаем удалять остальные файлы
+                log.error("Failed to delete {} images: {}", fileUrls.size(), e.getMessage());
             }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
         }
-        log.info("Deleted {} files from S3", deletedCount);
     }
 
-    // Удаление файлов по префиксу
-    public void deleteFilesByPrefix(String prefix) {
-        try {
-            // Получаем список всех файлов с указанным префиксом
-            ObjectListing objectListing = amazonS3.listObjects(bucketName, prefix);
-
-            int deletedCount = 0;
-            for (S3ObjectSummary objectSummary : objectListing.getObjectSummaries()) {
-                amazonS3.deleteObject(bucketName, objectSummary.getKey());
-                deletedCount++;
-            }
+    @PreDestroy
+    public void shutdown() {
+        deleteExecutor.close(); // дожидается начатых удалений
+    }
 
-            // Если файлов больше 1000 (пагинация)
-            while (objectListing.isTruncated()) {
-                objectListing = amazonS3.listNextBatchOfObjects(objectListing);
-                for (S3ObjectSummary objectSummary : objectListing.getObjectSummaries()) {
-                    amazonS3.deleteObject(bucketName, objectSummary.getKey());
-                    deletedCount++;
+    // Удаление файлов по префиксу: пока листинг идет дальше, уже полученные страницы
+    // (до 1000 ключей - это и размер пакета DeleteObjects) удаляются параллельно
+    public DeleteResult deleteFilesByPrefix(String prefix) {
+        List<Future<DeleteResult>> pages = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(DELETE_PARALLELISM)) {
+            ObjectListing objectListing = amazonS3.listObjects(new ListObjectsRequest()
+                    .withBucketName(bucketName)
+                    .withPrefix(prefix)
+                    .withMaxKeys(DELETE_BATCH_SIZE));
+            while (true) {
+                List<String> keys = objectListing.getObjectSummaries().stream().map(S3ObjectSummary::getKey).toList();
+                if (!keys.isEmpty()) {
+                    pages.add(executor.submit(() -> deleteKeys(keys)));
+                }
+                if (!objectListing.isTruncated()) {
+                    break;
                 }
+                objectListing = amazonS3.listNextBatchOfObjects(objectListing);
             }
-
-            log.info("Deleted {} files with prefix {}", deletedCount, prefix);
-
         } catch (Exception e) {
             log.error("Error deleting files with prefix {}: {}", prefix, e.getMessage());
             throw e;
         }
+
+        DeleteResult result = new DeleteResult(0, List.of());
+        for (Future<DeleteResult> page : pages) {
+            if (page.state() == Future.State.FAILED) {
+                throw new IllegalStateException("Error deleting files with prefix " + prefix, page.exceptionNow());
+            }
+            result = result.plus(page.resultNow());
+        }
+        log.info("Deleted {} files with prefix {} ({} failed)", result.deleted(), prefix, result.failedKeys().size());
+        return result;
+    }
+
+    // Ключи оригиналов и их копий; отсутствующие ключи S3 считает удаленными,
+    // поэтому для старых картинок без копий лишних запросов нет
+    private List<String> withRenditionKeys(List<String> fileUrls) {
+        List<String> keys = new ArrayList<>();
+        for (String fileUrl : fileUrls) {
+            String s3Key = extractKeyFromUrl(fileUrl);
+            keys.add(s3Key);
+            for (ImageRenditionService.Size size : ImageRenditionService.SIZES) {
+                keys.add(ImageRenditionService.renditionKey(s3Key, size.name()));
+            }
+        }
+        return keys;
+    }
+
+    DeleteResult deleteKeys(List<String> keys) {
+        DeleteResult result = new DeleteResult(0, List.of());
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            result = result.plus(deleteBatch(keys.subList(from, Math.min(keys.size(), from + DELETE_BATCH_SIZE))));
+        }
+        return result;
+    }
+
+    // Один пакет DeleteObjects; при частичной ошибке повторяются только неудаленные ключи
+    private DeleteResult deleteBatch(List<String> keys) {
+        List<String> pending = keys;
+        for (int attempt = 1; ; attempt++) {
+            String error;
+            try {
+                amazonS3.deleteObjects(new DeleteObjectsRequest(bucketName)
+                        .withKeys(pending.toArray(String[]::new))
+                        .withQuiet(true));
+                return new DeleteResult(keys.size(), List.of());
+            } catch (MultiObjectDeleteException e) {
+                pending = e.getErrors().stream().map(MultiObjectDeleteException.DeleteError::getKey).toList();
+                error = e.getErrors().get(0).getCode() + " " + e.getErrors().get(0).getMessage();
+            } catch (AmazonClientException e) {
+                error = e.getMessage();
+            }
+
+            if (attempt == MAX_DELETE_ATTEMPTS) {
+                log.error("Failed to delete {} of {} keys after {} attempts: {}", pending.size(), keys.size(),
+                        attempt, error);
+                return new DeleteResult(keys.size() - pending.size(), pending);
+            }
+            log.warn("Retrying delete of {} keys (attempt {}): {}", pending.size(), attempt, error);
+            try {
+                Thread.sleep(DELETE_RETRY_DELAY_MS << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new DeleteResult(keys.size() - pending.size(), pending);
+            }
+        }
+    }
+
+    // Имя файла по содержимому: <sha256>.<расширение>; .jpeg и .jpg - одно и то же
+    static String contentFileName(String sha256, String originalFilename) {
+        String extension = getFileExtension(originalFilename);
+        return sha256 + (extension.equals(".jpeg") ? ".jpg" : extension);
+    }
+
+    private static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(sha256Digest().digest(data));
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     // Генерация уникального имени файла
-    private String generateFileName(String originalFilename) {
+    static String generateFileName(String originalFilename) {
         String extension = getFileExtension(originalFilename);
         return UUID.randomUUID().toString() + extension;
     }
 
     // Получение расширения файла
-    private String getFileExtension(String filename) {
+    private static String getFileExtension(String filename) {
         if (filename == null || filename.lastIndexOf('.') == -1) {
             return ".jpg";
         }
@@ -114,7 +472,7 @@ public class S3Service {
     }
 
     // Извлечение ключа из URL
-    private String extractKeyFromUrl(String fileUrl) {
+    String extractKeyFromUrl(String fileUrl) {
         // Убираем baseUrl из начала
         if (fileUrl.startsWith(baseUrl)) {
             return fileUrl.substring(baseUrl.length() + 1); // +1 чтобы убрать слеш
@@ -0,0 +1,234 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Потоковая загрузка в S3 без промежуточного файла или массива на весь объект.
+// Тело запроса читается частями в буферы вне кучи из общего пула (app.s3.buffer-pool-size
+// по app.s3.part-size-mb), каждая часть сразу уходит в S3 как часть multipart upload.
+// MD5 части передается в Content-MD5 (S3 проверяет целостность), SHA-256 всего объекта
+// считается по ходу чтения. Объект в одну часть грузится обычным putObject.
+@Slf4j
+@Service
+public class S3StreamingUploader {
+
+    private static final int MIN_PART_SIZE_MB = 5; // меньше S3 не принимает (кроме последней части)
+    private static final long BUFFER_WAIT_SECONDS = 30;
+
+    private final AmazonS3 amazonS3;
+    private final String bucketName;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    public S3StreamingUploader(AmazonS3 amazonS3,
+                               @Value("${beget.s3.bucket-name}") String bucketName,
+                               @Value("${app.s3.part-size-mb:5}") int partSizeMb,
+                               @Value("${app.s3.buffer-pool-size:8}") int poolSize) {
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        int partSize = Math.max(MIN_PART_SIZE_MB, partSizeMb) * 1024 * 1024;
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            buffers.add(ByteBuffer.allocateDirect(partSize));
+        }
+    }
+
+    public record Upload(String key, long size, String sha256, int parts) {}
+
+    // Объект больше лимита - загрузка прерывается, уже переданные части удаляются
+    public static class TooLargeException extends IOException {
+        public TooLargeException(long maxBytes) {
+            super("Файл больше " + maxBytes / (1024 * 1024) + "MB");
+        }
+    }
+
+    // Загрузка потока целиком; поток не закрывается
+    public Upload upload(InputStream body, String key, String contentType, long maxBytes) throws IOException {
+        ByteBuffer buffer = acquire();
+        ReadableByteChannel channel = Channels.newChannel(body);
+        MessageDigest sha256 = digest("SHA-256");
+        List<PartETag> parts = new ArrayList<>();
+        String uploadId = null;
+        long size = 0;
+        try {
+            boolean eof = false;
+            while (!eof) {
+                eof = fill(channel, buffer);
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxBytes) {
+                    throw new TooLargeException(maxBytes);
+                }
+                sha256.update(buffer.duplicate());
+
+                if (uploadId == null && eof) {
+                    putSingle(key, contentType, buffer);
+                    return uploaded(key, size, sha256, 1);
+                }
+                if (uploadId == null) {
+                    uploadId = amazonS3.initiateMultipartUpload(
+                            new InitiateMultipartUploadRequest(bucketName, key, metadata(contentType))).getUploadId();
+                }
+                if (buffer.hasRemaining()) {
+                    parts.add(uploadPart(key, uploadId, parts.size() + 1, buffer));
+                }
+                buffer.clear();
+            }
+            amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, parts));
+            return uploaded(key, size, sha256, parts.size());
+        } catch (IOException | RuntimeException e) {
+            if (uploadId != null) {
+                abort(key, uploadId);
+            }
+            throw e;
+        } finally {
+            buffer.clear();
+            buffers.offer(buffer);
+        }
+    }
+
+    private ByteBuffer acquire() throws IOException {
+        try {
+            ByteBuffer buffer = buffers.poll(BUFFER_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (buffer == null) {
+                throw new IOException("Сервер загружен, повторите загрузку позже");
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка прервана");
+        }
+    }
+
+    // Читает до заполнения буфера; true - поток закончился
+    private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putSingle(String key, String contentType, ByteBuffer buffer) {
+        ObjectMetadata metadata = metadata(contentType);
+        metadata.setContentLength(buffer.remaining());
+        metadata.setContentMD5(md5(buffer));
+        amazonS3.putObject(new PutObjectRequest(bucketName, key, new ByteBufferInputStream(buffer.duplicate()), metadata));
+    }
+
+    private PartETag uploadPart(String key, String uploadId, int partNumber, ByteBuffer buffer) {
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(buffer.remaining())
+                .withMD5Digest(md5(buffer))
+                .withInputStream(new ByteBufferInputStream(buffer.duplicate()));
+        return amazonS3.uploadPart(request).getPartETag();
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        } catch (RuntimeException e) {
+            // Части останутся в бакете до очистки незавершенных загрузок (lifecycle-правило или вручную)
+            log.warn("Не удалось отменить multipart upload {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static ObjectMetadata metadata(String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setCacheControl(S3Service.IMMUTABLE_CACHE_CONTROL);
+        return metadata;
+    }
+
+    private static Upload uploaded(String key, long size, MessageDigest sha256, int parts) {
+        Upload upload = new Upload(key, size, HexFormat.of().formatHex(sha256.digest()), parts);
+        log.info("Streamed {} to S3: {} bytes in {} part(s), sha256 {}", key, size, parts, upload.sha256());
+        return upload;
+    }
+
+    private static String md5(ByteBuffer buffer) {
+        MessageDigest md5 = digest("MD5");
+        md5.update(buffer.duplicate());
+        return Base64.getEncoder().encodeToString(md5.digest());
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Поток поверх буфера; mark/reset нужны SDK для повтора запроса без перечитывания тела
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+            buffer.mark();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.fashionstorebackend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Сборка фронтенда (index.html и assets/ из Vite) загружается в индекс один раз при старте.
+// Vite кладет рядом сжатые копии .br и .gz - отдается лучшая из тех, что принимает клиент,
+// без сжатия на лету. Маленькие файлы держатся в памяти, большие отдаются из файла через sendfile
+// (из jar они один раз распаковываются во временный каталог). ETag - хеш содержимого каждой копии.
+@Slf4j
+@Service
+public class StaticAssetService {
+
+    private static final String INDEX = "index.html";
+    private static final String ASSETS = "assets/";
+    // Порядок предпочтения: brotli меньше gzip на 15-20% для JS и CSS
+    private static final List<String> ENCODINGS = List.of("br", "gzip");
+    private static final Map<String, String> EXTENSIONS = Map.of("br", ".br", "gzip", ".gz");
+
+    private final String location;
+    private final long sendfileMinBytes;
+    private final Path extractDir;
+
+    private Asset index;
+    private final Map<String, Asset> assets = new HashMap<>();
+
+    public StaticAssetService(@Value("${app.static.location:classpath:/static/}") String location,
+                              @Value("${app.static.sendfile-min-kb:48}") long sendfileMinKb,
+                              @Value("${app.static.extract-dir:${java.io.tmpdir}/palomica-static}") String extractDir) {
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.sendfileMinBytes = sendfileMinKb * 1024;
+        this.extractDir = Path.of(extractDir);
+    }
+
+    // encoding == null - без сжатия; file != null - отдавать из файла, иначе data
+    public record Variant(String encoding, byte[] data, Path file, long size, String etag) {}
+
+    public record Asset(String contentType, List<Variant> variants) {
+
+        // Есть сжатые копии - ответ зависит от Accept-Encoding (нужен Vary)
+        public boolean isEncoded() {
+            return variants.size() > 1;
+        }
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Resource indexResource = resolver.getResource(location + INDEX);
+        if (indexResource.exists()) {
+            // index.html всегда из памяти: он маленький и запрашивается при каждом заходе
+            index = load(INDEX, indexResource, resolver, Long.MAX_VALUE);
+        }
+
+        // Без собранного фронтенда (тесты, запуск из IDE) каталога нет - getResources на нем бросает исключение
+        if (!resolver.getResource(location + ASSETS).exists()) {
+            log.info("Static assets: index.html {}, {} not found",
+                    index == null ? "not found" : "cached", location + ASSETS);
+            return;
+        }
+
+        // Путь каталога assets внутри URL ресурса: classpath:/static/ -> /static/assets/
+        String marker = "/" + (location.substring(location.indexOf(':') + 1) + ASSETS).replaceFirst("^/+", "");
+        Set<String> names = new HashSet<>();
+        for (Resource resource : resolver.getResources(location + ASSETS + "**")) {
+            String url = resource.getURL().toString();
+            int start = url.lastIndexOf(marker);
+            if (start < 0 || url.endsWith("/") || !resource.isReadable()) {
+                continue;
+            }
+            String name = url.substring(start + marker.length());
+            if (!name.endsWith(".br") && !name.endsWith(".gz")) {
+                names.add(name);
+            }
+        }
+        long memoryBytes = 0;
+        for (String name : names) {
+            Asset asset = load(ASSETS + name, resolver.getResource(location + ASSETS + name), resolver,
+                    sendfileMinBytes);
+            assets.put(name, asset);
+            for (Variant variant : asset.variants()) {
+                memoryBytes += variant.data() == null ? 0 : variant.data().length;
+            }
+        }
+        log.info("Static assets: index.html {}, {} assets in /assets, {} KB in memory",
+                index == null ? "not found" : "cached", assets.size(), memoryBytes / 1024);
+    }
+
+    public Asset index() {
+        return index;
+    }
+
+    // name - путь внутри assets/ (app-Bx3k9.js); null - нет такого файла
+    public Asset asset(String name) {
+        return assets.get(name);
+    }
+
+    // Лучшая копия по заголовку Accept-Encoding; без заголовка - несжатая
+    public static Variant select(Asset asset, String acceptEncoding) {
+        Set<String> accepted = acceptedEncodings(acceptEncoding);
+        for (Variant variant : asset.variants()) {
+            if (variant.encoding() == null || accepted.contains(variant.encoding())) {
+                return variant;
+            }
+        }
+        return asset.variants().get(asset.variants().size() - 1);
+    }
+
+    // "gzip, deflate, br;q=0" -> [gzip, deflate]; q=0 означает "не присылать"
+    static Set<String> acceptedEncodings(String header) {
+        Set<String> accepted = new HashSet<>();
+        if (header == null) {
+            return accepted;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!coding.isEmpty() && !rejected) {
+                accepted.add(coding);
+            }
+        }
+        if (accepted.contains("*")) {
+            accepted.addAll(ENCODINGS);
+        }
+        return accepted;
+    }
+
+    private Asset load(String name, Resource original, PathMatchingResourcePatternResolver resolver,
+                       long fileMinBytes) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(name)
+                .map(type -> type.toString() + (type.getType().equals("text") || name.endsWith(".js")
+                        ? ";charset=UTF-8" : ""))
+                .orElse("application/octet-stream");
+        List<Variant> variants = new ArrayList<>();
+        for (String encoding : ENCODINGS) {
+            Resource encoded = resolver.getResource(location + name + EXTENSIONS.get(encoding));
+            if (encoded.exists()) {
+                variants.add(variant(encoding, name + EXTENSIONS.get(encoding), encoded, fileMinBytes));
+            }
+        }
+        variants.add(variant(null, name, original, fileMinBytes));
+        return new Asset(contentType, List.copyOf(variants));
+    }
+
+    private Variant variant(String encoding, String name, Resource resource, long fileMinBytes) throws IOException {
+        byte[] data;
+        try (InputStream in = resource.getInputStream()) {
+            data = in.readAllBytes();
+        }
+        String etag = hash(data) + (encoding == null ? "" : "-" + encoding);
+        if (data.length < fileMinBytes) {
+            return new Variant(encoding, data, null, data.length, etag);
+        }
+        return new Variant(encoding, null, file(resource, etag, name, data), data.length, etag);
+    }
+
+    // Файл на диске для sendfile: сам ресурс при запуске из каталога, иначе копия из jar.
+    // Имя копии содержит хеш - после новой сборки старые копии просто перестают использоваться
+    private Path file(Resource resource, String etag, String name, byte[] data) throws IOException {
+        if (resource.isFile()) {
+            return resource.getFile().toPath();
+        }
+        Files.createDirectories(extractDir);
+        Path target = extractDir.resolve(etag + "-" + Path.of(name).getFileName());
+        if (!Files.exists(target) || Files.size(target) != data.length) {
+            Path temp = Files.createTempFile(extractDir, etag, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -21,7 +21,6 @@ public class TelegramService {
 
     private final TelegramConfig telegramConfig;
 
-    private static final String TELEGRAM_API_URL = "https://api.telegram.org/bot";
     private static final DateTimeFormatter DATE_FORMATTER =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
@@ -109,7 +108,7 @@ public class TelegramService {
 
     private boolean sendMessageToChat(String text, String chatId, boolean markdown) {
         try {
-            String url = TELEGRAM_API_URL + telegramConfig.getBotToken() + "/sendMessage";
+            String url = telegramConfig.getApiUrl() + telegramConfig.getBotToken() + "/sendMessage";
 
             Map<String, Object> request = new HashMap<>();
             request.put("chat_id", chatId);
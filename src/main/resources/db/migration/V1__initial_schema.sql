@@ -0,0 +1,164 @@
+-- Исходная схема магазина (раньше создавалась Hibernate через ddl-auto=create-drop)
+
+-- ========== Администраторы ==========
+create table admin_users (
+    id       bigint       not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    role     varchar(255) not null,
+    active   bit          not null,
+    primary key (id),
+    constraint uk_admin_users_username unique (username)
+) engine=InnoDB;
+
+-- ========== Каталог ==========
+create table categories (
+    id            bigint       not null,
+    name          varchar(255) not null,
+    description   varchar(500),
+    display_order integer,
+    is_active     bit,
+    primary key (id),
+    constraint uk_categories_name unique (name)
+) engine=InnoDB;
+
+create table subcategories (
+    id            bigint       not null,
+    category_id   bigint       not null,
+    name          varchar(255) not null,
+    description   varchar(500),
+    display_order integer,
+    is_active     bit,
+    primary key (id)
+) engine=InnoDB;
+
+-- SubcategoryRepository.findByCategoryIdAndIsActiveTrueOrderByDisplayOrderAsc.
+-- Индекс создается до внешнего ключа, чтобы ключ использовал его, а не отдельный индекс по category_id
+create index idx_subcategories_category_active_order on subcategories (category_id, is_active, display_order);
+alter table subcategories add constraint fk_subcategories_category foreign key (category_id) references categories (id);
+
+create table products (
+    id                bigint       not null,
+    name              varchar(255) not null,
+    description       varchar(255),
+    price             float(53)    not null,
+    image_url         varchar(255),
+    color             varchar(255),
+    material          varchar(255),
+    care_instructions varchar(500),
+    category_id       bigint       not null,
+    subcategory_id    bigint,
+    primary key (id),
+    constraint fk_products_category foreign key (category_id) references categories (id),
+    constraint fk_products_subcategory foreign key (subcategory_id) references subcategories (id)
+) engine=InnoDB;
+
+create table product_images (
+    product_id bigint not null,
+    image_url  varchar(255),
+    constraint fk_product_images_product foreign key (product_id) references products (id)
+) engine=InnoDB;
+
+create table product_variants (
+    id                 bigint       not null,
+    product_id         bigint       not null,
+    size               varchar(255) not null,
+    available_quantity integer,
+    reserved_quantity  integer,
+    primary key (id)
+) engine=InnoDB;
+
+-- ProductVariantRepository: поиск по (product_id, size), остатки по списку product_id
+create index idx_product_variants_product_size on product_variants (product_id, size);
+alter table product_variants add constraint fk_product_variants_product foreign key (product_id) references products (id);
+
+-- ========== Заказы ==========
+create table orders (
+    id                          bigint       not null,
+    order_number                varchar(255) not null,
+    access_token                varchar(255),
+    status                      varchar(255) not null,
+    created_at                  datetime(6)  not null,
+    customer_name               varchar(255) not null,
+    customer_email              varchar(255) not null,
+    customer_phone              varchar(255) not null,
+    delivery_method             varchar(255) not null,
+    delivery_address            varchar(255),
+    payment_method              varchar(255) not null,
+    comment                     varchar(255),
+    total_amount                float(53)    not null,
+    yandex_delivery_point_id    varchar(255),
+    yandex_delivery_address     varchar(500),
+    yandex_delivery_city        varchar(255),
+    yandex_delivery_street      varchar(255),
+    yandex_delivery_house       varchar(255),
+    yandex_delivery_comment     varchar(1000),
+    cdek_delivery_point_code    varchar(255),
+    cdek_delivery_point_address varchar(500),
+    cdek_delivery_point_city    varchar(255),
+    cdek_delivery_point_name    varchar(255),
+    primary key (id),
+    constraint uk_orders_order_number unique (order_number),
+    constraint uk_orders_access_token unique (access_token)
+) engine=InnoDB;
+
+-- OrderRepository: список по статусу и общий список, новые сверху
+create index idx_orders_status_created on orders (status, created_at);
+create index idx_orders_created on orders (created_at);
+-- OrderRepository: поиск по телефону
+create index idx_orders_customer_phone on orders (customer_phone);
+
+create table order_items (
+    id         bigint    not null,
+    order_id   bigint    not null,
+    product_id bigint    not null,
+    quantity   integer   not null,
+    price      float(53) not null,
+    size       varchar(255),
+    color      varchar(255),
+    primary key (id),
+    constraint fk_order_items_order foreign key (order_id) references orders (id),
+    constraint fk_order_items_product foreign key (product_id) references products (id)
+) engine=InnoDB;
+
+create table order_events (
+    id         bigint       not null,
+    order_id   bigint       not null,
+    type       varchar(32)  not null,
+    old_value  varchar(255),
+    new_value  varchar(255),
+    details    varchar(1000),
+    created_at datetime(6)  not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_order_events_order_created on order_events (order_id, created_at);
+create index idx_order_events_created on order_events (created_at);
+
+create table order_number_blocks (
+    name       varchar(64) not null,
+    next_value bigint      not null,
+    primary key (name)
+) engine=InnoDB;
+
+-- ========== Счетчики идентификаторов (эмуляция последовательностей Hibernate для MySQL) ==========
+create table category_sequence (next_val bigint) engine=InnoDB;
+insert into category_sequence (next_val) values (1);
+
+create table subcategory_sequence (next_val bigint) engine=InnoDB;
+insert into subcategory_sequence (next_val) values (1);
+
+create table product_sequence (next_val bigint) engine=InnoDB;
+insert into product_sequence (next_val) values (1);
+
+create table product_variant_sequence (next_val bigint) engine=InnoDB;
+insert into product_variant_sequence (next_val) values (1);
+
+create table order_sequence (next_val bigint) engine=InnoDB;
+insert into order_sequence (next_val) values (1);
+
+create table order_item_sequence (next_val bigint) engine=InnoDB;
+insert into order_item_sequence (next_val) values (1);
+
+create table order_event_sequence (next_val bigint) engine=InnoDB;
+insert into order_event_sequence (next_val) values (1);
@@ -0,0 +1,3 @@
+-- Поиск по телефону в админке ищет вхождение (LIKE '%...%'): по B-tree индексу такой поиск не идет,
+-- индекс только замедлял каждую вставку заказа
+drop index idx_orders_customer_phone on orders;
@@ -0,0 +1,76 @@
+package com.example.fashionstorebackend.component;
+
+import com.example.fashionstorebackend.service.OrderNumberGenerator;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Объем и воспроизводимость синтетических данных
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SyntheticDataGenerator.class, OrderNumberGenerator.class})
+class SyntheticDataGeneratorTest {
+
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void generatesRequestedVolume() {
+        SyntheticDataGenerator.Result result = generator.generate(settings(7));
+
+        assertEquals(3, count("Category"));
+        assertEquals(12, count("Subcategory"));
+        assertEquals(200, count("Product"));
+        assertEquals(result.variants(), count("ProductVariant"));
+        assertEquals(1200, count("Order"));
+        assertEquals(result.orderItems(), count("OrderItem"));
+        assertTrue(result.orderItems() >= 1200);
+
+        LocalDateTime oldest = entityManager.createQuery("SELECT MIN(o.createdAt) FROM Order o", LocalDateTime.class)
+                .getSingleResult();
+        assertTrue(!oldest.isBefore(HISTORY_END.minusMonths(6)) && oldest.isBefore(HISTORY_END));
+    }
+
+    @Test
+    void sameSeedProducesSameData() {
+        long first = generator.generate(settings(7)).checksum();
+        rollbackAndRestart();
+        long second = generator.generate(settings(7)).checksum();
+        rollbackAndRestart();
+        long other = generator.generate(settings(8)).checksum();
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    private SyntheticDataGenerator.Settings settings(long seed) {
+        return new SyntheticDataGenerator.Settings(seed, 3, 4, 200, 5, 1200, 6, HISTORY_END);
+    }
+
+    private long count(String entity) {
+        return entityManager.createQuery("SELECT COUNT(e) FROM " + entity + " e", Long.class).getSingleResult();
+    }
+
+    private void rollbackAndRestart() {
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+        TestTransaction.start();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fashionstorebackend.config;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Клиент S3: повторы после 5xx, таймаут зависшего ответа, учет времени операций
+class S3ConfigTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void serverErrorsAreRetriedAndOperationIsTimedOnce() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        start(exchange -> {
+            int status = attempts.incrementAndGet() <= 2 ? 503 : 200;
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        S3RequestMetrics metrics = new S3RequestMetrics(10_000);
+
+        client(metrics, 10_000).getObjectMetadata("bucket", "products/a.jpg");
+
+        assertEquals(3, attempts.get());
+        Map<String, Object> stats = metrics.snapshot().get("GetObjectMetadata");
+        assertEquals(1L, stats.get("count"));
+        assertEquals(0L, stats.get("errors"));
+    }
+
+    @Test
+    void hangingResponseFailsWithinSocketTimeout() throws Exception {
+        start(exchange -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        S3RequestMetrics metrics = new S3RequestMetrics(10_000);
+        AmazonS3 client = client(metrics, 300);
+
+        long start = System.currentTimeMillis();
+        assertThrows(SdkClientException.class, () -> client.getObjectMetadata("bucket", "products/a.jpg"));
+
+        // Три попытки по 300 мс плюс паузы между ними, а не 5 с ожидания каждой
+        assertTrue(System.currentTimeMillis() - start < 4_000);
+        assertEquals(1L, metrics.snapshot().get("GetObjectMetadata").get("errors"));
+    }
+
+    @Test
+    void percentilesComeFromHistogramBuckets() {
+        S3RequestMetrics.OperationStats stats = new S3RequestMetrics.OperationStats();
+        for (int ms = 1; ms <= 100; ms++) {
+            stats.record(ms, false);
+        }
+
+        assertEquals(50L, stats.percentile(0.50));
+        assertEquals(100L, stats.percentile(0.95));
+        assertEquals(100L, stats.snapshot().get("maxMs"));
+        assertEquals(50L, stats.snapshot().get("avgMs"));
+    }
+
+    @Test
+    void operationNamesAndTimeouts() {
+        S3RequestMetrics metrics = new S3RequestMetrics(10_000);
+        DeleteObjectsRequest delete = new DeleteObjectsRequest("bucket");
+        metrics.beforeExecution(delete);
+        metrics.afterError(new DefaultRequest<>(delete, "Amazon S3"), null, new RuntimeException());
+        assertEquals(1L, metrics.snapshot().get("DeleteObjects").get("errors"));
+
+        S3Config.RequestTimeouts timeouts = new S3Config.RequestTimeouts(30_000, 60_000);
+        PutObjectRequest put = new PutObjectRequest("bucket", "products/a.jpg", new File("a.jpg"));
+        GetObjectRequest get = new GetObjectRequest("bucket", "products/a.jpg");
+        timeouts.beforeExecution(put);
+        timeouts.beforeExecution(get);
+
+        assertEquals(30_000, put.getSdkRequestTimeout());
+        assertEquals(60_000, put.getSdkClientExecutionTimeout());
+        assertNull(get.getSdkRequestTimeout());
+    }
+
+    private void start(HttpHandler handler) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", handler);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    private AmazonS3 client(S3RequestMetrics metrics, int socketTimeoutMs) {
+        return AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(
+                        "http://127.0.0.1:" + server.getAddress().getPort(), "ru1"))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("test", "test")))
+                .withClientConfiguration(S3Config.clientConfiguration(8, 1000, socketTimeoutMs, 30_000, 300_000,
+                        2, 10, 100))
+                .withRequestHandlers(new S3Config.RequestTimeouts(30_000, 60_000), metrics)
+                .build();
+    }
+}
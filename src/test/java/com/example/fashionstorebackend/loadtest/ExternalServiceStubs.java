@@ -0,0 +1,104 @@
+package com.example.fashionstorebackend.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Локальные заглушки внешних сервисов для нагрузочного прогона:
+// HTTP-сервер отвечает за Telegram Bot API (/bot...) и S3 (остальные пути),
+// письма не уходят по SMTP, а только считаются
+final class ExternalServiceStubs {
+
+    private static final byte[] TELEGRAM_OK = "{\"ok\":true,\"result\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final AtomicInteger telegramRequests = new AtomicInteger();
+    private final AtomicInteger s3Requests = new AtomicInteger();
+
+    static final AtomicInteger SENT_EMAILS = new AtomicInteger();
+
+    private ExternalServiceStubs(HttpServer server) {
+        this.server = server;
+    }
+
+    static ExternalServiceStubs start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            ExternalServiceStubs stubs = new ExternalServiceStubs(server);
+            server.createContext("/", stubs::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stubs;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    String telegramApiUrl() {
+        return baseUrl() + "/bot";
+    }
+
+    int telegramRequests() {
+        return telegramRequests.get();
+    }
+
+    int s3Requests() {
+        return s3Requests.get();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        if (exchange.getRequestURI().getPath().startsWith("/bot")) {
+            telegramRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, TELEGRAM_OK.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(TELEGRAM_OK);
+            }
+        } else {
+            // S3: любой PUT/DELETE/HEAD считается успешным
+            s3Requests.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", "\"00000000000000000000000000000000\"");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        }
+    }
+
+    // Вместо SMTP-сервера: письмо собирается как обычно, но не отправляется
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        JavaMailSender mailSender() {
+            return new JavaMailSenderImpl() {
+                @Override
+                public void send(MimeMessage... mimeMessages) {
+                    SENT_EMAILS.addAndGet(mimeMessages.length);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fashionstorebackend.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Задержки и исходы запросов по сценариям, перцентили и отчет прогона.
+// Отчет пишется в target/loadtest: таблица прогона (markdown) и строка на сценарий
+// в общий history.csv - так прогоны до и после изменения можно сравнить
+final class LatencyReport {
+
+    enum Outcome { OK, REJECTED, ERROR }
+
+    private final Map<String, ScenarioStats> scenarios = new LinkedHashMap<>();
+
+    LatencyReport(String... scenarioNames) {
+        for (String name : scenarioNames) {
+            scenarios.put(name, new ScenarioStats());
+        }
+    }
+
+    void record(String scenario, long latencyNanos, Outcome outcome) {
+        scenarios.get(scenario).add(latencyNanos, outcome);
+    }
+
+    Map<String, Summary> summarize(double durationSeconds) {
+        Map<String, Summary> result = new LinkedHashMap<>();
+        scenarios.forEach((name, stats) -> result.put(name, stats.summarize(durationSeconds)));
+        return result;
+    }
+
+    record Summary(int requests, int rejected, int errors, double throughput,
+                   double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    // Пишет отчет и возвращает путь к нему
+    Path write(Path directory, String settings, double durationSeconds) throws IOException {
+        Files.createDirectories(directory);
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Map<String, Summary> summaries = summarize(durationSeconds);
+
+        StringBuilder md = new StringBuilder();
+        md.append("# Нагрузочный прогон ").append(runId).append("\n\n");
+        md.append(settings).append("\n\n");
+        md.append("| Сценарий | Запросов | Отказов (4xx) | Ошибок | Ошибок, % | RPS | p50, мс | p90, мс | p99, мс | max, мс |\n");
+        md.append("|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+        StringBuilder csv = new StringBuilder();
+        summaries.forEach((name, s) -> {
+            md.append(String.format(Locale.ROOT, "| %s | %d | %d | %d | %.2f | %.1f | %.1f | %.1f | %.1f | %.1f |%n",
+                    name, s.requests(), s.rejected(), s.errors(), s.errorRate() * 100, s.throughput(),
+                    s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+            csv.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f%n",
+                    runId, name, s.requests(), s.rejected(), s.errors(), s.throughput(),
+                    s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+        });
+
+        Path report = directory.resolve("report-" + runId + ".md");
+        Files.writeString(report, md);
+
+        Path history = directory.resolve("history.csv");
+        if (Files.notExists(history)) {
+            Files.writeString(history, "run,scenario,requests,rejected,errors,rps,p50_ms,p90_ms,p99_ms,max_ms\n");
+        }
+        Files.writeString(history, csv, StandardOpenOption.APPEND);
+        return report;
+    }
+
+    private static final class ScenarioStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int rejected;
+        private int errors;
+
+        synchronized void add(long latencyNanos, Outcome outcome) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (outcome == Outcome.REJECTED) {
+                rejected++;
+            } else if (outcome == Outcome.ERROR) {
+                errors++;
+            }
+        }
+
+        synchronized Summary summarize(double durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Summary(count, rejected, errors, count / durationSeconds,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.90), percentileMs(sorted, 0.99),
+                    count == 0 ? 0 : sorted[count - 1] / 1_000_000.0);
+        }
+
+        // Перцентиль по методу ближайшего ранга
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
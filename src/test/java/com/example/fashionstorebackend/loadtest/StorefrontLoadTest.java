@@ -0,0 +1,245 @@
+package com.example.fashionstorebackend.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Нагрузочный прогон витрины и админки на встроенной H2 с синтетическими данными
+// и локальными заглушками SMTP, Telegram и S3 - без сети и внешних сервисов.
+// По умолчанию не запускается (тег load): mvn -Ploadtest test
+// Настройки: -Dloadtest.concurrency=32 -Dloadtest.duration-seconds=60 -Dloadtest.warmup-seconds=10
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"h2", "loadtest"})
+@Import(ExternalServiceStubs.MailConfig.class)
+class StorefrontLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StorefrontLoadTest.class);
+
+    private static final String CATEGORIES = "categories";
+    private static final String CATALOG = "catalog";
+    private static final String PRODUCT_CARD = "product-card";
+    private static final String AVAILABILITY = "availability";
+    private static final String CHECKOUT = "checkout";
+    private static final String ADMIN_ORDERS = "admin-orders";
+
+    // Доли сценариев в потоке запросов (сумма - 100)
+    private static final Map<String, Integer> MIX = Map.of(
+            CATEGORIES, 15, CATALOG, 15, PRODUCT_CARD, 25, AVAILABILITY, 20, CHECKOUT, 15, ADMIN_ORDERS, 10);
+    private static final List<String> SCENARIOS = List.of(
+            CATEGORIES, CATALOG, PRODUCT_CARD, AVAILABILITY, CHECKOUT, ADMIN_ORDERS);
+
+    private static final ExternalServiceStubs stubs = ExternalServiceStubs.start();
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${loadtest.concurrency:16}")
+    private int concurrency;
+
+    @Value("${loadtest.duration-seconds:30}")
+    private int durationSeconds;
+
+    @Value("${loadtest.warmup-seconds:5}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    private record CatalogItem(long productId, List<String> sizes) {}
+
+    @DynamicPropertySource
+    static void externalServices(DynamicPropertyRegistry registry) {
+        registry.add("telegram.api-url", stubs::telegramApiUrl);
+        registry.add("beget.s3.endpoint", stubs::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        stubs.stop();
+    }
+
+    @Test
+    void storefrontUnderLoad() throws Exception {
+        List<CatalogItem> catalog = loadCatalog();
+        String adminToken = login();
+        assertFalse(catalog.isEmpty(), "Каталог пуст - синтетические данные не загружены");
+
+        // Прогрев JIT, пулов и кэшей - результаты не учитываются
+        run(catalog, adminToken, warmupSeconds, new LatencyReport(SCENARIOS.toArray(String[]::new)));
+
+        LatencyReport report = new LatencyReport(SCENARIOS.toArray(String[]::new));
+        long started = System.nanoTime();
+        run(catalog, adminToken, durationSeconds, report);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        String settings = String.format("concurrency=%d, duration=%ds, warmup=%ds, seed=%d, товаров=%d; " +
+                        "заглушки: telegram=%d запросов, s3=%d, писем=%d",
+                concurrency, durationSeconds, warmupSeconds, seed, catalog.size(),
+                stubs.telegramRequests(), stubs.s3Requests(), ExternalServiceStubs.SENT_EMAILS.get());
+        Path file = report.write(Path.of("target", "loadtest"), settings, elapsedSeconds);
+        log.info("Отчет нагрузочного прогона: {}", file.toAbsolutePath());
+
+        report.summarize(elapsedSeconds).forEach((scenario, summary) -> {
+            log.info("{}: {} запросов, {} ошибок, {} RPS, p50={} мс, p99={} мс", scenario, summary.requests(),
+                    summary.errors(), Math.round(summary.throughput()), summary.p50Ms(), summary.p99Ms());
+            assertTrue(summary.requests() > 0, "Нет запросов в сценарии " + scenario);
+            assertTrue(summary.errorRate() <= maxErrorRate,
+                    "Доля ошибок в сценарии " + scenario + ": " + summary.errorRate());
+        });
+    }
+
+    // Замкнутый цикл: concurrency виртуальных потоков шлют запросы один за другим до истечения времени
+    private void run(List<CatalogItem> catalog, String adminToken, int seconds, LatencyReport report)
+            throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                Random random = new Random(seed + worker);
+                futures.add(workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        String scenario = pickScenario(random);
+                        HttpRequest request = buildRequest(scenario, catalog, adminToken, random);
+                        long start = System.nanoTime();
+                        LatencyReport.Outcome outcome;
+                        try {
+                            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            outcome = outcome(scenario, status);
+                        } catch (Exception e) {
+                            outcome = LatencyReport.Outcome.ERROR;
+                        }
+                        report.record(scenario, System.nanoTime() - start, outcome);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    // 400 на оформлении - нормальный отказ (товар закончился), а не сбой
+    private static LatencyReport.Outcome outcome(String scenario, int status) {
+        if (status >= 200 && status < 300) {
+            return LatencyReport.Outcome.OK;
+        }
+        if (CHECKOUT.equals(scenario) && status == 400) {
+            return LatencyReport.Outcome.REJECTED;
+        }
+        return LatencyReport.Outcome.ERROR;
+    }
+
+    private static String pickScenario(Random random) {
+        int r = random.nextInt(100);
+        for (String scenario : SCENARIOS) {
+            r -= MIX.get(scenario);
+            if (r < 0) {
+                return scenario;
+            }
+        }
+        return SCENARIOS.get(0);
+    }
+
+    private HttpRequest buildRequest(String scenario, List<CatalogItem> catalog, String adminToken, Random random) {
+        CatalogItem item = catalog.get(random.nextInt(catalog.size()));
+        String size = item.sizes().get(random.nextInt(item.sizes().size()));
+        return switch (scenario) {
+            case CATEGORIES -> get("/api/categories").build();
+            case CATALOG -> get("/api/products").build();
+            case PRODUCT_CARD -> get("/api/products/" + item.productId()).build();
+            case AVAILABILITY -> get("/api/products/" + item.productId() + "/availability?size=" + size).build();
+            case CHECKOUT -> post("/api/orders", checkoutBody(item, size, random));
+            case ADMIN_ORDERS -> get("/api/admin/orders?status=NEW")
+                    .header("Authorization", "Bearer " + adminToken).build();
+            default -> throw new IllegalArgumentException(scenario);
+        };
+    }
+
+    private String checkoutBody(CatalogItem item, String size, Random random) {
+        int customer = random.nextInt(10_000);
+        return jsonMapper.writeValueAsString(Map.of(
+                "customerName", "Покупатель " + customer,
+                "customerEmail", "load" + customer + "@example.com",
+                "customerPhone", String.format("+79%09d", customer),
+                "deliveryMethod", "pickup",
+                "paymentMethod", "card",
+                "deliveryAddress", "Самовывоз",
+                "items", List.of(Map.of("productId", item.productId(), "quantity", 1, "size", size))));
+    }
+
+    private List<CatalogItem> loadCatalog() throws Exception {
+        HttpResponse<String> response = httpClient.send(get("/api/products").build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<CatalogItem> catalog = new ArrayList<>();
+        for (JsonNode product : jsonMapper.readTree(response.body())) {
+            List<String> sizes = new ArrayList<>();
+            for (JsonNode variant : product.path("variants")) {
+                sizes.add(variant.path("size").asString());
+            }
+            if (!sizes.isEmpty()) {
+                catalog.add(new CatalogItem(product.path("id").asLong(), sizes));
+            }
+        }
+        return catalog;
+    }
+
+    private String login() throws Exception {
+        String body = jsonMapper.writeValueAsString(Map.of("username", "admin", "password", "admin123"));
+        HttpResponse<String> response = httpClient.send(post("/api/admin/auth/login", body),
+                HttpResponse.BodyHandlers.ofString());
+        return jsonMapper.readTree(response.body()).path("token").asString();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.fashionstorebackend.repository;
+
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Order;
+import com.example.fashionstorebackend.model.OrderItem;
+import com.example.fashionstorebackend.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Количество подготовленных INSERT на сохранение заказа и товара: без пакетов и с пакетной записью.
+// Считаются только вставки: чтения таблиц последовательностей зависят от того, где закончился
+// выделенный блок id, и сделали бы число запросов нестабильным
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.fashionstorebackend.repository.BatchInsertStatementCountTest$InsertCounter")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BatchInsertStatementCountTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchInsertStatementCountTest.class);
+
+    private static final int ITEMS_PER_ORDER = 20;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product product;
+
+    // Каждая подготовка INSERT; пачка готовится один раз, сколько бы строк в нее ни вошло
+    public static class InsertCounter implements StatementInspector {
+
+        static final AtomicLong INSERTS = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("insert")) {
+                INSERTS.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category("Платья");
+        entityManager.persist(category);
+        product = new Product("Платье", "Описание", 5000.0, "main.jpg",
+                "черный", "хлопок", null, category, null);
+        entityManager.persist(product);
+        entityManager.flush();
+    }
+
+    @Test
+    void orderItemsAreInsertedInBatches() {
+        long unbatched = countStatements(1, this::persistOrder);
+        long batched = countStatements(50, this::persistOrder);
+
+        log.info("Заказ из {} позиций: {} INSERT без пакетов, {} с пакетами", ITEMS_PER_ORDER, unbatched, batched);
+        assertEquals(1 + ITEMS_PER_ORDER, unbatched);
+        // Заказ + одна пачка позиций
+        assertEquals(2, batched);
+    }
+
+    @Test
+    void variantsAndImagesAreInsertedInBatches() {
+        long unbatched = countStatements(1, this::persistProduct);
+        long batched = countStatements(50, this::persistProduct);
+
+        log.info("Товар с 6 вариантами и 4 картинками: {} INSERT без пакетов, {} с пакетами", unbatched, batched);
+        assertEquals(1 + 6 + 4, unbatched);
+        // Товар + пачка вариантов + пачка картинок
+        assertEquals(3, batched);
+    }
+
+    private long countStatements(int jdbcBatchSize, Runnable work) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previous = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(jdbcBatchSize);
+        try {
+            long before = InsertCounter.INSERTS.get();
+            work.run();
+            entityManager.flush();
+            return InsertCounter.INSERTS.get() - before;
+        } finally {
+            session.setJdbcBatchSize(previous);
+        }
+    }
+
+    private void persistOrder() {
+        Order order = new Order("Анна", "anna@example.com", "+70000000000",
+                "Москва", "courier", "card", null, 5000.0 * ITEMS_PER_ORDER);
+        order.setOrderNumber("T" + System.nanoTime());
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addItem(new OrderItem(product, 1, "M", "черный"));
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+        assertEquals(ITEMS_PER_ORDER, order.getItems().size());
+    }
+
+    private void persistProduct() {
+        Product newProduct = new Product("Юбка " + System.nanoTime(), "Описание", 3000.0, "main.jpg",
+                "белый", "лен", null, product.getCategoryEntity(), null);
+        for (String size : List.of("XS", "S", "M", "L", "XL", "XXL")) {
+            newProduct.addVariant(size, 5);
+        }
+        newProduct.getAdditionalImages().addAll(List.of("1.jpg", "2.jpg", "3.jpg", "4.jpg"));
+        entityManager.persist(newProduct);
+    }
+}
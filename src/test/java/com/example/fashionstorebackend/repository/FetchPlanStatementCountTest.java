@@ -0,0 +1,140 @@
+package com.example.fashionstorebackend.repository;
+
+import com.example.fashionstorebackend.dto.ProductDTO;
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Order;
+import com.example.fashionstorebackend.model.OrderItem;
+import com.example.fashionstorebackend.model.Product;
+import com.example.fashionstorebackend.model.Subcategory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Количество SQL-запросов на выборку данных для каждого сценария (каталог, товар, заказы, категории)
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FetchPlanStatementCountTest {
+
+    private static final int PRODUCTS = 10;
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Statistics statistics;
+    private Long productId;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            Category category = new Category("категория " + c, null, c);
+            entityManager.persist(category);
+            for (int s = 0; s < 3; s++) {
+                Subcategory subcategory = new Subcategory("подкатегория " + c + "-" + s, null, category, s);
+                category.getSubcategories().add(subcategory);
+                entityManager.persist(subcategory);
+            }
+            for (int p = 0; p < PRODUCTS / 2; p++) {
+                Product product = new Product("товар " + c + "-" + p, null, 1000.0, "main.jpg",
+                        null, null, null, category, category.getSubcategories().get(p % 3));
+                product.addVariant("S", 3);
+                product.addVariant("M", 3);
+                product.addVariant("L", 3);
+                product.getAdditionalImages().addAll(List.of("1.jpg", "2.jpg"));
+                entityManager.persist(product);
+                products.add(product);
+            }
+        }
+        productId = products.get(0).getId();
+
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = new Order("Покупатель", "buyer@example.com", "+70000000000",
+                    "Москва", "courier", "card", null, 3000.0);
+            order.setOrderNumber("FP" + o + System.nanoTime());
+            for (int i = 0; i < 3; i++) {
+                order.addItem(new OrderItem(products.get((o + i) % PRODUCTS), 1, "M", null));
+            }
+            entityManager.persist(order);
+            orderId = order.getId();
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    // GET /api/products, GET /api/admin/products
+    @Test
+    void productListing() {
+        List<ProductDTO> dtos = productRepository.findAllWithDetails().stream().map(ProductDTO::new).toList();
+
+        assertEquals(PRODUCTS, dtos.size());
+        assertEquals(3, dtos.get(0).getVariants().size());
+        // товары с категориями и вариантами + картинки пачкой
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // GET /api/products/{id}, PUT /api/admin/products/{id}
+    @Test
+    void productDetail() {
+        ProductDTO dto = new ProductDTO(productRepository.findWithDetailsById(productId).orElseThrow());
+
+        assertEquals(2, dto.getAdditionalImages().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // Telegram/email: в позиции заказа нужно только название товара
+    @Test
+    void orderLineDisplay() {
+        Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+        order.getItems().forEach(item -> item.getProduct().getName());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // GET /api/admin/orders: заказы с позициями и полными карточками товаров
+    @Test
+    void adminOrderList() {
+        List<Order> orders = orderRepository.findAllByOrderByCreatedAtDesc();
+        orders.forEach(order -> order.getItems().forEach(item -> new ProductDTO(item.getProduct())));
+
+        assertEquals(ORDERS, orders.size());
+        // заказы с позициями, товарами и категориями + варианты пачкой + картинки пачкой
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    // GET /api/categories: категории с подкатегориями
+    @Test
+    void activeCategories() {
+        List<Category> categories = categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
+        categories.forEach(category -> category.getSubcategories().forEach(Subcategory::getName));
+
+        assertEquals(2, categories.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
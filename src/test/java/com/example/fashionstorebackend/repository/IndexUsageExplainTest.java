@@ -0,0 +1,141 @@
+package com.example.fashionstorebackend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// План горячих запросов на схеме из миграций: тест падает, если запрос перестал использовать свой индекс.
+// EXPLAIN выполняется для SQL, который Hibernate сгенерировал при вызове метода репозитория,
+// поэтому изменение производного запроса или графа сущностей тоже проверяется
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.fashionstorebackend.repository.IndexUsageExplainTest$SqlRecorder")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IndexUsageExplainTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    // Все подготовленные запросы SELECT
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> SELECTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+                SELECTS.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SqlRecorder.SELECTS.clear();
+    }
+
+    @Test
+    void variantByProductAndSize() {
+        productVariantRepository.findByProductIdAndSize(1L, "M");
+        assertUsesIndex("idx_product_variants_product_size", 1L, "M");
+    }
+
+    // Подходит любой индекс с product_id в начале
+    // (H2 держит для внешнего ключа свой индекс, MySQL использует для ключа составной)
+    @Test
+    void variantStockByProductIds() {
+        productVariantRepository.findStockByProductIdIn(List.of(1L, 2L, 3L));
+        assertNoTableScan(1L, 2L, 3L);
+    }
+
+    @Test
+    void ordersByStatus() {
+        orderRepository.findAllByStatusOrderByCreatedAtDesc("NEW");
+        assertUsesIndex("idx_orders_status_created", "NEW");
+    }
+
+    @Test
+    void ordersNewestFirst() {
+        orderRepository.findAllByOrderByCreatedAtDesc();
+        assertUsesIndex("idx_orders_created");
+    }
+
+    @Test
+    void orderByAccessToken() {
+        orderRepository.findByAccessToken("token");
+        assertUsesIndex("uk_orders_access_token", "token");
+    }
+
+    @Test
+    void activeSubcategoriesOfCategory() {
+        subcategoryRepository.findByCategoryIdAndIsActiveTrueOrderByDisplayOrderAsc(1L);
+        assertUsesIndex("idx_subcategories_category_active_order", 1L);
+    }
+
+    @Test
+    void orderEventsOfOrder() {
+        orderEventRepository.findByOrderIdOrderByCreatedAtAsc(1L);
+        assertUsesIndex("idx_order_events_order_created", 1L);
+    }
+
+    private void assertUsesIndex(String index, Object... parameters) {
+        String plan = explainRecorded(parameters);
+        assertTrue(plan.contains(index.toLowerCase()), "Запрос не использует индекс " + index + ":\n" + plan);
+    }
+
+    private void assertNoTableScan(Object... parameters) {
+        String plan = explainRecorded(parameters);
+        assertFalse(plan.contains("tablescan"), "Запрос читает всю таблицу:\n" + plan);
+    }
+
+    // План единственного SELECT, выполненного методом репозитория, с теми же значениями параметров
+    private String explainRecorded(Object... parameters) {
+        assertEquals(1, SqlRecorder.SELECTS.size(), "Ожидался один запрос: " + SqlRecorder.SELECTS);
+        String sql = SqlRecorder.SELECTS.get(0);
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                assertEquals(parameters.length, statement.getParameterMetaData().getParameterCount(),
+                        "Число параметров запроса:\n" + sql);
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString().toLowerCase();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Прокси картинок: уменьшение, готовые копии из S3, одна загрузка на параллельные промахи, LRU на диске
+class ImageProxyServiceTest {
+
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+
+    @TempDir
+    Path cacheDir;
+
+    private ImageProxyService service(long maxBytes) throws IOException {
+        return new ImageProxyService(amazonS3, new ImageRenditionService(),
+                new ImageDiskCache(cacheDir, maxBytes, 0), "bucket");
+    }
+
+    @Test
+    void staticImageIsResizedToSnappedWidthAndCached() throws Exception {
+        ImageProxyService service = service(10 * 1024 * 1024);
+
+        ImageProxyService.CachedImage image = service.get("images/products/bags/bag_1.jpg", 400);
+        ImageProxyService.CachedImage again = service.get("images/products/bags/bag_1.jpg", 480);
+
+        assertEquals(480, ImageIO.read(image.file().toFile()).getWidth());
+        assertEquals("image/jpeg", image.contentType());
+        assertFalse(image.immutable());
+        assertEquals(image, again);
+        assertThrows(FileNotFoundException.class, () -> service.get("images/products/none.jpg", 480));
+    }
+
+    @Test
+    void existingRenditionIsUsedAndOldImagesAreResized() throws Exception {
+        byte[] card = jpeg(480, 640);
+        when(amazonS3.getObject("bucket", "products/new_card.jpg")).thenReturn(object(card));
+        when(amazonS3.getObject("bucket", "products/old_card.jpg")).thenThrow(notFound());
+        when(amazonS3.getObject("bucket", "products/old.jpg")).thenReturn(object(jpeg(1000, 500)));
+        ImageProxyService service = service(10 * 1024 * 1024);
+
+        ImageProxyService.CachedImage fresh = service.get("products/new.jpg", 480);
+        ImageProxyService.CachedImage old = service.get("products/old.jpg", 161);
+
+        assertArrayEquals(card, Files.readAllBytes(fresh.file()));
+        assertTrue(fresh.immutable());
+        BufferedImage resized = ImageIO.read(old.file().toFile());
+        assertEquals(480, resized.getWidth());
+        assertEquals(240, resized.getHeight());
+        verify(amazonS3, times(0)).getObject("bucket", "products/new.jpg");
+    }
+
+    // ImageIO не декодирует WebP: вместо уменьшенной копии отдается оригинал - и с его типом
+    @Test
+    void originalReturnedInsteadOfResizeKeepsItsContentType() throws Exception {
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 \0\0\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        when(amazonS3.getObject("bucket", "products/pic_card.jpg")).thenThrow(notFound());
+        when(amazonS3.getObject("bucket", "products/pic.webp")).thenAnswer(invocation -> object(webp));
+        ImageProxyService service = service(10 * 1024 * 1024);
+
+        ImageProxyService.CachedImage image = service.get("products/pic.webp", 480);
+
+        assertEquals("image/webp", image.contentType());
+        assertArrayEquals(webp, Files.readAllBytes(image.file()));
+        assertEquals("image/webp", service.get("products/pic.webp", 480).contentType());
+        assertEquals("image/webp",
+                new ImageDiskCache(cacheDir, 10 * 1024 * 1024, 0).get(image.etag()).contentType());
+        assertEquals("image/png", ImageProxyService.contentType(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0}));
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] card = jpeg(480, 640);
+        when(amazonS3.getObject(eq("bucket"), anyString())).thenAnswer(invocation -> {
+            release.await();
+            return object(card);
+        });
+        ImageProxyService service = service(10 * 1024 * 1024);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ImageProxyService.CachedImage>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> service.get("products/a.jpg", 480)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<ImageProxyService.CachedImage> result : results) {
+                assertEquals(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(amazonS3, times(1)).getObject("bucket", "products/a_card.jpg");
+    }
+
+    @Test
+    void keysOutsideProductAndDemoImagesAreRejected() throws Exception {
+        ImageProxyService service = service(1024);
+
+        assertThrows(IllegalArgumentException.class, () -> service.get("images/../application.properties", 480));
+        assertThrows(IllegalArgumentException.class, () -> service.get("../etc/passwd.jpg", null));
+        assertThrows(IllegalArgumentException.class, () -> service.get("products/a.html", null));
+        assertThrows(IllegalArgumentException.class, () -> service.get("orders/a.jpg", null));
+        assertThrows(IllegalArgumentException.class, () -> service.get("backups/products/a.jpg", null));
+        assertThrows(IllegalArgumentException.class, () -> service.get("products.jpg", null));
+        verify(amazonS3, times(0)).getObject(anyString(), anyString());
+        assertThrows(IllegalArgumentException.class, () -> service.get("products/a.jpg", 0));
+    }
+
+    @Test
+    void leastRecentlyUsedFilesAreEvicted() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(cacheDir, 3000, 0);
+        cache.put("a", new byte[1000], "image/jpeg");
+        cache.put("b", new byte[1000], "image/jpeg");
+        cache.put("c", new byte[1000], "image/jpeg");
+        cache.get("a");
+        cache.put("d", new byte[1000], "image/jpeg");
+
+        assertNull(cache.get("b"));
+        assertFalse(Files.exists(cacheDir.resolve("b.jpg")));
+        assertNotNull(cache.get("a"));
+        assertEquals(3000, cache.totalBytes());
+
+        // После перезапуска индекс восстанавливается с диска
+        ImageDiskCache reloaded = new ImageDiskCache(cacheDir, 3000, 0);
+        assertEquals(3, reloaded.size());
+        assertEquals("image/jpeg", reloaded.get("d").contentType());
+    }
+
+    @Test
+    void evictedFileOutlivesResponsesStartedBeforeEviction() throws Exception {
+        ImageDiskCache cache = new ImageDiskCache(cacheDir, 2000, 300);
+        Path served = cache.put("a", new byte[1000], "image/jpeg").file();
+        cache.put("b", new byte[1000], "image/jpeg");
+        cache.put("c", new byte[1000], "image/jpeg");
+
+        // Вытеснен из индекса, но файл на месте: sendfile, получивший путь раньше, его дочитает
+        assertNull(cache.get("a"));
+        assertEquals(1000, Files.size(served));
+        assertEquals(2000, cache.totalBytes());
+
+        // Вернувшийся в кэш id не удаляется вместе со своей прежней копией
+        cache.put("b", new byte[1000], "image/jpeg");
+        cache.put("a", new byte[1000], "image/jpeg");
+        Thread.sleep(400);
+        cache.put("d", new byte[1000], "image/jpeg");
+        assertTrue(Files.exists(cacheDir.resolve("a.jpg")));
+        assertFalse(Files.exists(cacheDir.resolve("c.jpg")));
+    }
+
+    private static S3Object object(byte[] data) {
+        S3Object object = new S3Object();
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(data.length);
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new ByteArrayInputStream(data));
+        return object;
+    }
+
+    private static AmazonS3Exception notFound() {
+        AmazonS3Exception e = new AmazonS3Exception("Not Found");
+        e.setStatusCode(404);
+        return e;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+}
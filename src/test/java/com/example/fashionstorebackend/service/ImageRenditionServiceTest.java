@@ -0,0 +1,176 @@
+package com.example.fashionstorebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageRenditionServiceTest {
+
+    private final ImageRenditionService service = new ImageRenditionService();
+
+    @Test
+    void largeImageGetsAllRenditionsWithAspectRatio() throws IOException {
+        List<ImageRenditionService.Rendition> renditions = service.render(jpeg(3000, 4000, false));
+
+        assertEquals(List.of("thumb", "card", "detail", "zoom"),
+                renditions.stream().map(ImageRenditionService.Rendition::name).toList());
+        assertArrayEquals(new int[]{160, 480, 960, 1600},
+                renditions.stream().mapToInt(ImageRenditionService.Rendition::width).toArray());
+        for (ImageRenditionService.Rendition rendition : renditions) {
+            assertEquals(Math.round(rendition.width() * 4 / 3f), rendition.height());
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(rendition.data()));
+            assertEquals(rendition.width(), decoded.getWidth());
+        }
+    }
+
+    @Test
+    void smallImageIsNotUpscaled() throws IOException {
+        List<ImageRenditionService.Rendition> renditions = service.render(jpeg(600, 800, false));
+
+        assertEquals(List.of("thumb", "card", "detail"),
+                renditions.stream().map(ImageRenditionService.Rendition::name).toList());
+        assertEquals(600, renditions.get(2).width());
+    }
+
+    @Test
+    void metadataIsStripped() throws IOException {
+        byte[] original = jpeg(1200, 1600, true);
+        assertTrue(contains(original, "Секретный комментарий"));
+
+        for (ImageRenditionService.Rendition rendition : service.render(original)) {
+            assertFalse(contains(rendition.data(), "Секретный комментарий"));
+        }
+    }
+
+    // Телефон пишет кадр "лежа" и ставит Orientation = 6: показывать с поворотом на 90 по часовой
+    @Test
+    void exifOrientationIsAppliedToRenditions() throws IOException {
+        BufferedImage stored = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = stored.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 200);
+        g.setColor(Color.BLUE);
+        g.fillRect(200, 0, 200, 200);
+        g.dispose();
+        byte[] original = withExifOrientation(encode(stored), 6);
+
+        List<ImageRenditionService.Rendition> renditions = service.render(original);
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(renditions.get(0).data()));
+        ImageRenditionService.Rendition card = service.renderWidth(new ByteArrayInputStream(original), "card", 480);
+
+        assertEquals(160, thumb.getWidth());
+        assertEquals(320, thumb.getHeight());
+        // Левая половина кадра (красная) после поворота сверху, правая (синяя) - снизу
+        assertTrue(new Color(thumb.getRGB(80, 40)).getRed() > 200);
+        assertTrue(new Color(thumb.getRGB(80, 280)).getBlue() > 200);
+        assertEquals(200, card.width());
+        assertEquals(400, card.height());
+        assertEquals(6, ImageRenditionService.exifOrientation(exif(6, ByteOrder.LITTLE_ENDIAN)));
+        assertEquals(0, ImageRenditionService.exifOrientation("Exif\0\0MM".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void unsupportedFormatProducesNoRenditions() throws IOException {
+        assertTrue(service.render("RIFF....WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)).isEmpty());
+    }
+
+    @Test
+    void renditionKeysAreDerivedFromOriginalKey() {
+        assertEquals("products/abc_card.jpg", ImageRenditionService.renditionKey("products/abc.png", "card"));
+        assertEquals("products.v2/abc_thumb.jpg", ImageRenditionService.renditionKey("products.v2/abc", "thumb"));
+    }
+
+    // JPEG с градиентом; withComment - с COM-сегментом в метаданных
+    private static byte[] jpeg(int width, int height, boolean withComment) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y += 7) {
+            for (int x = 0; x < width; x += 7) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            IIOMetadata metadata = null;
+            if (withComment) {
+                metadata = writer.getDefaultImageMetadata(
+                        ImageTypeSpecifier.createFromRenderedImage(image), null);
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+                IIOMetadataNode comment = new IIOMetadataNode("com");
+                comment.setUserObject("Секретный комментарий".getBytes(StandardCharsets.UTF_8));
+                ((IIOMetadataNode) root.getElementsByTagName("markerSequence").item(0)).appendChild(comment);
+                metadata.setFromTree("javax_imageio_jpeg_image_1.0", root);
+            }
+            writer.write(new IIOImage(image, null, metadata));
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    // Вставляет сегмент APP1 с EXIF Orientation сразу после JFIF APP0
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = exif(orientation, ByteOrder.BIG_ENDIAN);
+        int app0End = 4 + ((jpeg[4] & 0xFF) << 8 | (jpeg[5] & 0xFF));
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + 4 + exif.length);
+        result.put(jpeg, 0, app0End);
+        result.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (exif.length + 2)).put(exif);
+        result.put(jpeg, app0End, jpeg.length - app0End);
+        return result.array();
+    }
+
+    // "Exif\0\0" + TIFF с одним тегом Orientation в IFD0
+    private static byte[] exif(int orientation, ByteOrder order) {
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(order);
+        tiff.put(order == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I');
+        tiff.put(order == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I');
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        byte[] header = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        return ByteBuffer.allocate(header.length + tiff.capacity()).put(header).put(tiff.array()).array();
+    }
+
+    private static boolean contains(byte[] data, String text) {
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        outer:
+        for (int i = 0; i + needle.length <= data.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
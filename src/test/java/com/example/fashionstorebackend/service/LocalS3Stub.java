@@ -0,0 +1,203 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Локальная замена S3 для тестов: объекты в памяти, path-style адреса /bucket/key.
+// Поддерживает PUT (в том числе копирование), HEAD, GET и DELETE одного объекта; подписи не проверяет
+final class LocalS3Stub {
+
+    static final String BUCKET = "test-bucket";
+
+    record StoredObject(byte[] data, String contentType, Map<String, String> userMetadata, Instant modified) {}
+
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger uploads = new AtomicInteger();
+
+    private LocalS3Stub(HttpServer server) {
+        this.server = server;
+    }
+
+    static LocalS3Stub start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            LocalS3Stub stub = new LocalS3Stub(server);
+            server.createContext("/", stub::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Клиент, настроенный как в S3Config, но на локальный адрес
+    AmazonS3 client() {
+        return AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint(), "ru1"))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("test", "test")))
+                .build();
+    }
+
+    Map<String, StoredObject> objects() {
+        return objects;
+    }
+
+    // Количество PUT с телом (без копирований)
+    int uploads() {
+        return uploads.get();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+        String key = path.substring(("/" + BUCKET + "/").length());
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha256 != null && contentSha256.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+
+        switch (exchange.getRequestMethod()) {
+            case "PUT" -> {
+                String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                if (copySource == null) {
+                    uploads.incrementAndGet();
+                    objects.put(key, new StoredObject(body, exchange.getRequestHeaders().getFirst("Content-Type"),
+                            userMetadata(exchange), Instant.now()));
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    copy(exchange, URLDecoder.decode(copySource, StandardCharsets.UTF_8), key);
+                }
+            }
+            case "HEAD", "GET" -> {
+                StoredObject object = objects.get(key);
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    break;
+                }
+                exchange.getResponseHeaders().set("ETag", etag(object.data()));
+                exchange.getResponseHeaders().set("Content-Type", object.contentType());
+                exchange.getResponseHeaders().set("Last-Modified",
+                        DateTimeFormatter.RFC_1123_DATE_TIME.format(object.modified().atOffset(ZoneOffset.UTC)));
+                object.userMetadata().forEach((name, value) ->
+                        exchange.getResponseHeaders().set("x-amz-meta-" + name, value));
+                if (exchange.getRequestMethod().equals("HEAD")) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.data().length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, object.data().length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(object.data());
+                    }
+                }
+            }
+            case "DELETE" -> {
+                objects.remove(key);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+        exchange.close();
+    }
+
+    private void copy(HttpExchange exchange, String source, String key) throws IOException {
+        StoredObject original = objects.get(source.substring(source.indexOf(BUCKET + "/") + BUCKET.length() + 1));
+        if (original == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        StoredObject copy = "REPLACE".equals(exchange.getRequestHeaders().getFirst("x-amz-metadata-directive"))
+                ? new StoredObject(original.data(), exchange.getRequestHeaders().getFirst("Content-Type"),
+                        userMetadata(exchange), Instant.now())
+                : new StoredObject(original.data(), original.contentType(), original.userMetadata(), Instant.now());
+        objects.put(key, copy);
+        byte[] response = ("<CopyObjectResult><LastModified>" + Instant.now() + "</LastModified><ETag>"
+                + etag(copy.data()) + "</ETag></CopyObjectResult>").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static Map<String, String> userMetadata(HttpExchange exchange) {
+        Map<String, String> metadata = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (name.toLowerCase().startsWith("x-amz-meta-")) {
+                metadata.put(name.substring("x-amz-meta-".length()).toLowerCase(), values.get(0));
+            }
+        });
+        return metadata;
+    }
+
+    // SDK по http подписывает тело по частям: "<hex-размер>;chunk-signature=...\r\n<данные>\r\n"
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int position = 0;
+        while (true) {
+            int lineEnd = indexOfCrlf(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.substring(0, header.indexOf(';')), 16);
+            if (size == 0) {
+                return out.toByteArray();
+            }
+            out.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Некорректное тело aws-chunked");
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
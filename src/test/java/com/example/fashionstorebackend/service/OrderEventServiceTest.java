@@ -0,0 +1,83 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.OrderEvent;
+import com.example.fashionstorebackend.repository.OrderEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Буфер событий: неудачная пачка повторяется, запись при переполнении идет в своей транзакции
+class OrderEventServiceTest {
+
+    private final OrderEventRepository repository = mock(OrderEventRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OrderEventService service = new OrderEventService(repository, transactionManager);
+
+    @Test
+    void failedBatchIsRetriedOnNextFlush() {
+        List<List<Long>> written = new ArrayList<>();
+        when(repository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("БД недоступна"))
+                .thenAnswer(invocation -> {
+                    List<OrderEvent> batch = invocation.getArgument(0);
+                    written.add(batch.stream().map(OrderEvent::getOrderId).toList());
+                    return batch;
+                });
+        service.recordOrderCreated(1L, "NEW");
+        service.recordOrderCreated(2L, "NEW");
+
+        service.flush();
+        service.recordOrderCreated(3L, "NEW");
+        service.flush();
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), written);
+    }
+
+    @Test
+    void batchIsDroppedOnlyAfterBoundedAttempts() {
+        when(repository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("БД недоступна"));
+        service.recordOrderCreated(1L, "NEW");
+
+        for (int i = 0; i < 7; i++) {
+            service.flush();
+        }
+
+        verify(repository, times(5)).saveAll(anyList());
+    }
+
+    @Test
+    void overflowAfterCommitIsWrittenInNewTransaction() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        for (int i = 0; i < 10_000; i++) {
+            service.recordOrderCreated((long) i, "NEW");
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.recordOrderCreated(10_000L, "NEW");
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(transactionManager).getTransaction(argThat(
+                (TransactionDefinition definition) ->
+                        definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(repository).save(any(OrderEvent.class));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Лента заказов: доставка после коммита, дочитывание по Last-Event-ID, RESYNC, отключение медленного клиента
+class OrderFeedServiceTest {
+
+    private final OrderFeedService service = new OrderFeedService();
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void eventsAreSentOnlyAfterCommit() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(null, emitter);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publishNewOrder(order(1L, "NEW"));
+            service.publishStatusChange(order(1L, "CONFIRMED"), "NEW");
+            assertNull(emitter.next(200));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("1 NEW_ORDER", emitter.next(2000));
+        assertEquals("2 STATUS_CHANGED", emitter.next(2000));
+    }
+
+    @Test
+    void reconnectReplaysEventsAfterLastEventId() throws Exception {
+        for (long i = 1; i <= 3; i++) {
+            service.publishNewOrder(order(i, "NEW"));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(1L, emitter);
+        service.publishStatusChange(order(2L, "CONFIRMED"), "NEW");
+
+        assertEquals("2 NEW_ORDER", emitter.next(2000));
+        assertEquals("3 NEW_ORDER", emitter.next(2000));
+        assertEquals("4 STATUS_CHANGED", emitter.next(2000));
+        assertNull(emitter.next(200));
+    }
+
+    @Test
+    void resyncWhenMissedEventsAreGoneOrServerRestarted() throws Exception {
+        for (long i = 1; i <= 501; i++) {
+            service.publishNewOrder(order(i, "NEW"));
+        }
+
+        // Событие 1 уже вытеснено из буфера на 500 событий
+        RecordingEmitter evicted = new RecordingEmitter();
+        service.subscribe(0L, evicted);
+        assertEquals("501 RESYNC", evicted.next(2000));
+        assertNull(evicted.next(200));
+
+        // Id больше последнего - клиент видел ленту до перезапуска сервера
+        RecordingEmitter restarted = new RecordingEmitter();
+        service.subscribe(9000L, restarted);
+        assertEquals("501 RESYNC", restarted.next(2000));
+
+        // Последний id совпадает с текущим - дочитывать нечего
+        RecordingEmitter upToDate = new RecordingEmitter();
+        service.subscribe(501L, upToDate);
+        assertNull(upToDate.next(200));
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWhenBufferOverflows() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        service.subscribe(null, slow);
+
+        // Первое событие зависло в send, еще 100 заполняют буфер, следующее его переполняет
+        for (long i = 1; i <= 102; i++) {
+            service.publishNewOrder(order(i, "NEW"));
+        }
+
+        assertTrue(slow.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(0, service.getSubscriberCount());
+        release.countDown();
+
+        // Переподключение: пропущенные события помещаются в буфер - дочитываются
+        RecordingEmitter reconnected = new RecordingEmitter();
+        service.subscribe(2L, reconnected);
+        for (long i = 3; i <= 102; i++) {
+            assertEquals(i + " NEW_ORDER", reconnected.next(2000));
+        }
+        assertEquals(1, service.getSubscriberCount());
+
+        // Пропущено больше, чем вмещает буфер, - RESYNC вместо отключения посреди дочитывания
+        RecordingEmitter farBehind = new RecordingEmitter();
+        service.subscribe(1L, farBehind);
+        assertEquals("102 RESYNC", farBehind.next(2000));
+        assertNull(farBehind.next(200));
+        assertEquals(1, farBehind.completed.getCount());
+    }
+
+    private static Order order(Long id, String status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNumber("PM-" + id);
+        order.setStatus(status);
+        return order;
+    }
+
+    // Запоминает отправленные события как "id name"; heartbeat пропускает
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            String id = null;
+            String name = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String text) {
+                    for (String line : text.split("\n")) {
+                        if (line.startsWith("id:")) {
+                            id = line.substring(3);
+                        } else if (line.startsWith("event:")) {
+                            name = line.substring(6);
+                        }
+                    }
+                }
+            }
+            if (name != null) {
+                sent.add(id + " " + name);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next(long timeoutMs) throws InterruptedException {
+            return sent.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.fashionstorebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNumberGeneratorTest {
+
+    @Test
+    void encodeIsCollisionFreeForConsecutiveValues() {
+        Set<String> numbers = new HashSet<>();
+        for (long value = 1; value <= 1_000_000; value++) {
+            String number = OrderNumberGenerator.encode(value);
+            assertEquals(OrderNumberGenerator.LENGTH, number.length());
+            assertTrue(numbers.add(number), "Повтор номера для значения " + value);
+        }
+    }
+
+    @Test
+    void encodeUsesOnlyOrderNumberAlphabet() {
+        for (long value = 1; value <= 10_000; value++) {
+            for (char c : OrderNumberGenerator.encode(value).toCharArray()) {
+                assertTrue(OrderNumberGenerator.ALPHABET.indexOf(c) >= 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.example.fashionstorebackend.model.Category;
+import com.example.fashionstorebackend.model.Product;
+import com.example.fashionstorebackend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Сборщик удаляет только старые файлы без ссылок из товаров - вместе с их копиями
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrphanImageCollectorTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(7));
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+    private final List<String> deletedKeys = new ArrayList<>();
+    private OrphanImageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category("категория", null, 0);
+        entityManager.persist(category);
+        Product product = new Product("товар", null, 1000.0, "https://cdn.test/products/main.jpg",
+                null, null, null, category, null);
+        product.getAdditionalImages().add("https://cdn.test/products/extra.png");
+        entityManager.persist(product);
+
+        S3Service s3Service = new S3Service();
+        ReflectionTestUtils.setField(s3Service, "amazonS3", amazonS3);
+        ReflectionTestUtils.setField(s3Service, "bucketName", "bucket");
+        ReflectionTestUtils.setField(s3Service, "baseUrl", "https://cdn.test");
+        collector = new OrphanImageCollector(amazonS3, s3Service, productRepository, transactionManager);
+        ReflectionTestUtils.setField(collector, "bucketName", "bucket");
+        ReflectionTestUtils.setField(collector, "prefix", "products/");
+        ReflectionTestUtils.setField(collector, "graceHours", 48L);
+
+        ObjectListing first = listing(true,
+                object("products/main.jpg", OLD),
+                object("products/main_card.jpg", OLD),
+                object("products/extra.png", OLD),
+                object("products/extra_zoom.jpg", OLD));
+        ObjectListing last = listing(false,
+                object("products/abandoned.jpg", OLD),
+                object("products/abandoned_thumb.jpg", OLD),
+                object("products/just-uploaded.jpg", Instant.now().minus(Duration.ofHours(1))));
+        when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(first);
+        when(amazonS3.listNextBatchOfObjects(first)).thenReturn(last);
+        when(amazonS3.deleteObjects(any())).thenAnswer(invocation -> {
+            DeleteObjectsRequest request = invocation.getArgument(0);
+            request.getKeys().forEach(key -> deletedKeys.add(key.getKey()));
+            return new DeleteObjectsResult(List.of());
+        });
+    }
+
+    @Test
+    void deletesOnlyOldUnreferencedObjects() {
+        OrphanImageCollector.Result result = collector.collect(false);
+
+        assertEquals(7, result.scanned());
+        assertEquals(2, result.orphans());
+        assertEquals(List.of("products/abandoned.jpg", "products/abandoned_thumb.jpg"), deletedKeys);
+    }
+
+    @Test
+    void dryRunDeletesNothing() {
+        OrphanImageCollector.Result result = collector.collect(true);
+
+        assertEquals(List.of("products/abandoned.jpg", "products/abandoned_thumb.jpg"), result.sample());
+        verify(amazonS3, never()).deleteObjects(any());
+    }
+
+    @Test
+    void renditionsShareImageIdWithOriginal() {
+        assertEquals("products/abc", OrphanImageCollector.imageId("products/abc.png"));
+        assertEquals("products/abc", OrphanImageCollector.imageId("products/abc_detail.jpg"));
+        assertEquals("products/abc_front", OrphanImageCollector.imageId("products/abc_front.jpg"));
+    }
+
+    @Test
+    void filterHasNoFalseNegativesAndFewFalsePositives() {
+        OrphanImageCollector.KeyFilter filter = new OrphanImageCollector.KeyFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("products/" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("products/" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain("products/" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "ложноположительных: " + falsePositives);
+    }
+
+    private static S3ObjectSummary object(String key, Instant lastModified) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setKey(key);
+        summary.setLastModified(Date.from(lastModified));
+        return summary;
+    }
+
+    private static ObjectListing listing(boolean truncated, S3ObjectSummary... objects) {
+        ObjectListing listing = new ObjectListing();
+        listing.getObjectSummaries().addAll(List.of(objects));
+        listing.setTruncated(truncated);
+        return listing;
+    }
+}
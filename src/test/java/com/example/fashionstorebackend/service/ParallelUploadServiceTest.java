@@ -0,0 +1,130 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelUploadServiceTest {
+
+    private final S3Service s3Service = mock(S3Service.class);
+
+    @Test
+    void uploadsInParallelUpToConcurrencyLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(s3Service.uploadImage(any(), anyString())).thenAnswer(invocation -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            MultipartFile file = invocation.getArgument(0);
+            return new ImageManifestDTO("https://s3/" + file.getOriginalFilename(), new ArrayList<>());
+        });
+        ParallelUploadService service = new ParallelUploadService(s3Service, 3);
+
+        List<ParallelUploadService.FileResult> results = service.upload(files(10), "products")
+                .results().get(5, TimeUnit.SECONDS);
+
+        assertEquals(10, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals("https://s3/photo" + i + ".jpg", results.get(i).manifest().getUrl());
+        }
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    void failedFileDoesNotFailBatch() throws Exception {
+        when(s3Service.uploadImage(any(), anyString())).thenAnswer(invocation -> {
+            MultipartFile file = invocation.getArgument(0);
+            if (file.getOriginalFilename().equals("photo1.jpg")) {
+                throw new IllegalStateException("S3 недоступен");
+            }
+            return new ImageManifestDTO("https://s3/" + file.getOriginalFilename(), new ArrayList<>());
+        });
+        ParallelUploadService service = new ParallelUploadService(s3Service, 2);
+
+        List<ParallelUploadService.FileResult> results = service.upload(files(3), "products")
+                .results().get(5, TimeUnit.SECONDS);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).error().contains("S3 недоступен"));
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    @Test
+    void cancelStopsRemainingUploads() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(s3Service.uploadImage(any(), anyString())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            started.countDown();
+            Thread.sleep(10_000); // прерывается отменой
+            return new ImageManifestDTO();
+        });
+        ParallelUploadService service = new ParallelUploadService(s3Service, 1);
+
+        ParallelUploadService.Batch batch = service.upload(files(5), "products");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        batch.cancel();
+
+        List<ParallelUploadService.FileResult> results = batch.results().get(1, TimeUnit.SECONDS);
+        assertTrue(results.stream().noneMatch(ParallelUploadService.FileResult::isSuccess));
+        Thread.sleep(100);
+        assertEquals(1, calls.get());
+    }
+
+    // Разрешение прерванной загрузки освобождается во время cancel(): ни один файл из очереди
+    // не должен успеть его взять. Гонка редкая, поэтому повторяем много раз
+    @Test
+    void queuedFilesNeverReachS3AfterCancel() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            S3Service s3 = mock(S3Service.class);
+            CountDownLatch started = new CountDownLatch(1);
+            List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+            when(s3.uploadImage(any(), anyString())).thenAnswer(invocation -> {
+                MultipartFile file = invocation.getArgument(0);
+                uploaded.add(file.getOriginalFilename());
+                started.countDown();
+                Thread.sleep(10_000); // прерывается отменой
+                return new ImageManifestDTO();
+            });
+            ParallelUploadService service = new ParallelUploadService(s3, 1);
+
+            ParallelUploadService.Batch batch = service.upload(files(20), "products");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            String blocked = uploaded.get(0);
+            batch.cancel();
+            batch.results().get(1, TimeUnit.SECONDS);
+            Thread.sleep(20);
+            service.shutdown();
+
+            assertEquals(List.of(blocked), uploaded, "раунд " + round);
+        }
+    }
+
+    private static List<MultipartFile> files(int count) {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(new MockMultipartFile("files", "photo" + i + ".jpg", "image/jpeg", new byte[]{1, 2, 3}));
+        }
+        return files;
+    }
+}
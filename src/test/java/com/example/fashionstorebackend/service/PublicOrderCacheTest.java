@@ -0,0 +1,29 @@
+package com.example.fashionstorebackend.service;
+
+import com.example.fashionstorebackend.dto.OrderDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// При переполнении вытесняется только давно не запрошенная запись, а не весь кеш
+class PublicOrderCacheTest {
+
+    @Test
+    void overflowEvictsLeastRecentlyUsedEntry() {
+        PublicOrderCache cache = new PublicOrderCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        for (int i = 0; i < PublicOrderCache.MAX_ENTRIES; i++) {
+            cache.put("token-" + i, new OrderDTO());
+        }
+        cache.get("token-0");
+
+        cache.put("token-new", new OrderDTO());
+
+        assertNotNull(cache.get("token-0"));
+        assertNull(cache.get("token-1"));
+        assertNotNull(cache.get("token-2"));
+        assertNotNull(cache.get("token-new"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Полный цикл прямой загрузки против локальной замены S3
+class S3PresignedUploadServiceTest {
+
+    private LocalS3Stub s3;
+    private S3PresignedUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        s3 = LocalS3Stub.start();
+        AmazonS3 amazonS3 = s3.client();
+        S3Service s3Service = new S3Service();
+        ReflectionTestUtils.setField(s3Service, "amazonS3", amazonS3);
+        ReflectionTestUtils.setField(s3Service, "imageRenditionService", new ImageRenditionService());
+        ReflectionTestUtils.setField(s3Service, "bucketName", LocalS3Stub.BUCKET);
+        ReflectionTestUtils.setField(s3Service, "baseUrl", "https://cdn.test");
+        service = new S3PresignedUploadService(amazonS3, s3Service, LocalS3Stub.BUCKET, 15);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.stop();
+    }
+
+    @Test
+    void browserUploadIsRegisteredWithRenditions() throws Exception {
+        byte[] image = jpeg(1200, 900);
+        S3PresignedUploadService.PresignedUpload upload =
+                service.presign("products", "photo.JPEG", "image/jpeg", image.length, sha256(image));
+
+        assertEquals("products/" + sha256(image) + ".jpg", upload.key());
+        assertTrue(upload.uploadUrl().startsWith(s3.endpoint() + "/" + LocalS3Stub.BUCKET + "/" + upload.key()));
+        assertTrue(upload.uploadUrl().contains("content-length"), "размер должен входить в подпись");
+        assertEquals(200, put(upload, image));
+
+        ImageManifestDTO manifest = service.complete(upload.key());
+
+        assertEquals("https://cdn.test/" + upload.key(), manifest.getUrl());
+        assertEquals(List.of("thumb", "card", "detail", "zoom"),
+                manifest.getRenditions().stream().map(ImageManifestDTO.RenditionDTO::getName).toList());
+        assertTrue(s3.objects().containsKey(ImageRenditionService.renditionKey(upload.key(), "card")));
+
+        // Та же картинка второй раз: загружать нечего, manifest восстанавливается из метаданных
+        S3PresignedUploadService.PresignedUpload again =
+                service.presign("products", "copy.jpg", "image/jpeg", image.length, sha256(image));
+        assertNull(again.uploadUrl());
+        assertEquals(manifest, again.existing());
+    }
+
+    @Test
+    void completeDeletesObjectWithOtherContent() throws Exception {
+        byte[] declared = jpeg(300, 200);
+        byte[] actual = jpeg(200, 300);
+        S3PresignedUploadService.PresignedUpload upload =
+                service.presign("products", "a.jpg", "image/jpeg", actual.length, sha256(declared));
+        assertEquals(200, put(upload, actual));
+
+        assertThrows(IllegalArgumentException.class, () -> service.complete(upload.key()));
+        assertFalse(s3.objects().containsKey(upload.key()));
+    }
+
+    @Test
+    void completeRejectsMissingObject() throws Exception {
+        S3PresignedUploadService.PresignedUpload upload =
+                service.presign("products", "a.png", "image/png", 100, sha256(new byte[100]));
+
+        assertThrows(IllegalArgumentException.class, () -> service.complete(upload.key()));
+    }
+
+    @Test
+    void completeDeletesObjectThatViolatesConstraints() throws Exception {
+        S3PresignedUploadService.PresignedUpload upload =
+                service.presign("products", "a.png", "image/png", 4, sha256("<h1>".getBytes()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(upload.uploadUrl()))
+                .header("Content-Type", "text/html")
+                .PUT(HttpRequest.BodyPublishers.ofString("<h1>"))
+                .build();
+        HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+
+        assertThrows(IllegalArgumentException.class, () -> service.complete(upload.key()));
+        assertFalse(s3.objects().containsKey(upload.key()));
+    }
+
+    @Test
+    void presignValidatesFolderTypeSizeAndHash() throws Exception {
+        String sha256 = sha256(new byte[100]);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.presign("../orders", "a.jpg", "image/jpeg", 100, sha256));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.presign("products", "a.jpg", "text/html", 100, sha256));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.presign("products", "a.jpg", "image/jpeg", S3PresignedUploadService.MAX_SIZE + 1, sha256));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.presign("products", "a.jpg", "image/jpeg", 100, "../../x"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.complete("products/../../secret.jpg"));
+    }
+
+    // PUT так, как его делает браузер: с выданными заголовками (Content-Length ставит сам клиент)
+    private static int put(S3PresignedUploadService.PresignedUpload upload, byte[] data) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upload.uploadUrl()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(data));
+        upload.headers().forEach((name, value) -> {
+            if (!name.equals("Content-Length")) {
+                request.header(name, value);
+            }
+        });
+        return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.example.fashionstorebackend.dto.ImageManifestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ключи по содержимому: повторная загрузка той же картинки ничего не пишет в S3
+class S3ServiceContentKeyTest {
+
+    private LocalS3Stub s3;
+    private S3Service s3Service;
+
+    @BeforeEach
+    void setUp() {
+        s3 = LocalS3Stub.start();
+        AmazonS3 amazonS3 = s3.client();
+        s3Service = new S3Service();
+        ReflectionTestUtils.setField(s3Service, "amazonS3", amazonS3);
+        ReflectionTestUtils.setField(s3Service, "imageRenditionService", new ImageRenditionService());
+        ReflectionTestUtils.setField(s3Service, "streamingUploader",
+                new S3StreamingUploader(amazonS3, LocalS3Stub.BUCKET, 5, 1));
+        ReflectionTestUtils.setField(s3Service, "bucketName", LocalS3Stub.BUCKET);
+        ReflectionTestUtils.setField(s3Service, "baseUrl", "https://cdn.test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.stop();
+    }
+
+    @Test
+    void sameImageIsStoredOnce() throws Exception {
+        byte[] image = jpeg(1000, 800);
+
+        ImageManifestDTO first = s3Service.uploadImage(file("red.jpg", image), "products");
+        int uploads = s3.uploads();
+        ImageManifestDTO second = s3Service.uploadImage(file("blue.jpeg", image), "products");
+
+        assertEquals("https://cdn.test/products/" + sha256(image) + ".jpg", first.getUrl());
+        assertEquals(first, second);
+        assertEquals(uploads, s3.uploads());
+    }
+
+    // Повторная загрузка давно брошенной картинки: сборщик мусора должен считать ее новой
+    @Test
+    void reusedImageIsRefreshedWithItsRenditions() throws Exception {
+        byte[] image = jpeg(1000, 800);
+        ImageManifestDTO first = s3Service.uploadImage(file("red.jpg", image), "products");
+        Instant old = Instant.now().minus(Duration.ofDays(30));
+        s3.objects().replaceAll((key, object) -> new LocalS3Stub.StoredObject(object.data(), object.contentType(),
+                object.userMetadata(), old));
+
+        ImageManifestDTO second = s3Service.uploadImage(file("blue.jpg", image), "products");
+
+        assertEquals(first, second);
+        assertEquals(5, s3.objects().size());
+        s3.objects().forEach((key, object) -> assertTrue(object.modified().isAfter(old), key));
+        assertEquals(first, s3Service.findImage("products/" + sha256(image) + ".jpg"));
+        assertEquals("image/jpeg", s3.objects().get("products/" + sha256(image) + ".jpg").contentType());
+    }
+
+    @Test
+    void streamedUploadLandsOnContentKey() throws Exception {
+        byte[] image = jpeg(1000, 800);
+
+        S3Service.StreamedImage streamed = s3Service.uploadImageStream(new ByteArrayInputStream(image), "a.jpg",
+                "image/jpeg", "products", 10 * 1024 * 1024);
+        ImageManifestDTO uploaded = s3Service.uploadImage(file("b.jpg", image), "products");
+
+        assertEquals(sha256(image), streamed.sha256());
+        assertEquals(uploaded, streamed.manifest());
+        assertEquals(4, streamed.manifest().getRenditions().size());
+        assertTrue(s3.objects().keySet().stream().noneMatch(key -> key.contains("tmp-")));
+        assertEquals("image/jpeg", s3.objects().get("products/" + sha256(image) + ".jpg").contentType());
+    }
+
+    private static MockMultipartFile file(String name, byte[] data) {
+        return new MockMultipartFile("file", name, "image/jpeg", data);
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.example.fashionstorebackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Удаление пакетами DeleteObjects: размер пакетов, повтор частичных ошибок, удаление по префиксу
+class S3ServiceDeleteTest {
+
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final S3Service s3Service = new S3Service();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(s3Service, "amazonS3", amazonS3);
+        ReflectionTestUtils.setField(s3Service, "productRepository", productRepository);
+        ReflectionTestUtils.setField(s3Service, "bucketName", "bucket");
+        ReflectionTestUtils.setField(s3Service, "baseUrl", "https://cdn.test");
+    }
+
+    @Test
+    void productImagesAreDeletedInOneRequest() {
+        recordDeletes();
+
+        S3Service.DeleteResult result = s3Service.deleteMultipleFiles(
+                IntStream.range(0, 10).mapToObj(i -> "https://cdn.test/products/" + i + ".jpg").toList());
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, requests.size());
+        assertEquals(10 * (1 + ImageRenditionService.SIZES.size()), requests.get(0).size());
+        assertTrue(requests.get(0).contains("products/3_card.jpg"));
+    }
+
+    @Test
+    void imagesStillUsedByOtherProductsAreKept() {
+        recordDeletes();
+        String shared = "https://cdn.test/products/shared.jpg";
+        when(productRepository.findAdditionalImageUrlsIn(any())).thenReturn(List.of(shared));
+
+        s3Service.deleteMultipleFiles(List.of(shared, "https://cdn.test/products/own.jpg"));
+        s3Service.deleteFile(shared);
+
+        assertEquals(1, requests.size());
+        assertTrue(requests.get(0).contains("products/own.jpg"));
+        assertTrue(requests.get(0).stream().noneMatch(key -> key.startsWith("products/shared")));
+    }
+
+    @Test
+    void failedKeysAreRetriedAndReported() {
+        when(amazonS3.deleteObjects(any())).thenAnswer(invocation -> {
+            List<String> keys = keys(invocation.getArgument(0));
+            requests.add(keys);
+            List<MultiObjectDeleteException.DeleteError> errors = new ArrayList<>();
+            for (String key : keys) {
+                // a.jpg удаляется со второй попытки, b.jpg не удаляется никогда
+                if ((key.equals("products/a.jpg") && requests.size() == 1) || key.equals("products/b.jpg")) {
+                    MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+                    error.setKey(key);
+                    error.setCode("InternalError");
+                    errors.add(error);
+                }
+            }
+            if (!errors.isEmpty()) {
+                throw new MultiObjectDeleteException(errors, List.of());
+            }
+            return new DeleteObjectsResult(List.of());
+        });
+
+        S3Service.DeleteResult result = s3Service.deleteMultipleFiles(
+                List.of("https://cdn.test/products/a.jpg", "https://cdn.test/products/b.jpg"));
+
+        assertEquals(List.of("products/b.jpg"), result.failedKeys());
+        assertEquals(2 * (1 + ImageRenditionService.SIZES.size()) - 1, result.deleted());
+        assertEquals(3, requests.size());
+        assertEquals(List.of("products/a.jpg", "products/b.jpg"), requests.get(1));
+        assertEquals(List.of("products/b.jpg"), requests.get(2));
+    }
+
+    @Test
+    void prefixIsDeletedPageByPage() {
+        recordDeletes();
+        ObjectListing first = listing(0, 1000, true);
+        ObjectListing second = listing(1000, 1000, true);
+        ObjectListing last = listing(2000, 500, false);
+        when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(first);
+        when(amazonS3.listNextBatchOfObjects(first)).thenReturn(second);
+        when(amazonS3.listNextBatchOfObjects(second)).thenReturn(last);
+
+        S3Service.DeleteResult result = s3Service.deleteFilesByPrefix("tmp/");
+
+        assertEquals(2500, result.deleted());
+        assertEquals(3, requests.size());
+        assertTrue(requests.stream().allMatch(keys -> keys.size() <= 1000));
+    }
+
+    private void recordDeletes() {
+        when(amazonS3.deleteObjects(any())).thenAnswer(invocation -> {
+            requests.add(keys(invocation.getArgument(0)));
+            return new DeleteObjectsResult(List.of());
+        });
+    }
+
+    private static List<String> keys(DeleteObjectsRequest request) {
+        return request.getKeys().stream().map(DeleteObjectsRequest.KeyVersion::getKey).toList();
+    }
+
+    private static ObjectListing listing(int from, int count, boolean truncated) {
+        ObjectListing listing = new ObjectListing();
+        for (int i = from; i < from + count; i++) {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey("tmp/" + i);
+            listing.getObjectSummaries().add(summary);
+        }
+        listing.setTruncated(truncated);
+        return listing;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.fashionstorebackend.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StreamingUploaderTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+    private final S3StreamingUploader uploader = new S3StreamingUploader(amazonS3, "bucket", 5, 1);
+
+    @Test
+    void smallFileIsSinglePut() throws Exception {
+        byte[] data = bytes(300_000);
+        List<byte[]> puts = new ArrayList<>();
+        when(amazonS3.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+            PutObjectRequest request = invocation.getArgument(0);
+            byte[] body = request.getInputStream().readAllBytes();
+            assertEquals(md5(body), request.getMetadata().getContentMD5());
+            puts.add(body);
+            return new PutObjectResult();
+        });
+
+        S3StreamingUploader.Upload upload = uploader.upload(new ByteArrayInputStream(data), "products/a.jpg",
+                "image/jpeg", 10 * 1024 * 1024);
+
+        assertEquals(1, upload.parts());
+        assertEquals(data.length, upload.size());
+        assertEquals(sha256(data), upload.sha256());
+        assertArrayEquals(data, puts.get(0));
+        verify(amazonS3, never()).initiateMultipartUpload(any());
+    }
+
+    @Test
+    void largeFileIsUploadedInParts() throws Exception {
+        byte[] data = bytes(2 * PART_SIZE + 1234);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        when(amazonS3.initiateMultipartUpload(any())).thenReturn(initiated());
+        when(amazonS3.uploadPart(any())).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            byte[] body = request.getInputStream().readAllBytes();
+            assertEquals(request.getPartSize(), body.length);
+            assertEquals(md5(body), request.getMd5Digest());
+            uploaded.write(body);
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        });
+
+        // Поток отдает данные мелкими кусками, как сеть
+        S3StreamingUploader.Upload upload = uploader.upload(trickle(data), "products/b.jpg",
+                "image/jpeg", 20 * 1024 * 1024);
+
+        assertEquals(3, upload.parts());
+        assertEquals(sha256(data), upload.sha256());
+        assertArrayEquals(data, uploaded.toByteArray());
+        verify(amazonS3).completeMultipartUpload(any());
+    }
+
+    @Test
+    void tooLargeFileAbortsUpload() {
+        when(amazonS3.initiateMultipartUpload(any())).thenReturn(initiated());
+        when(amazonS3.uploadPart(any())).thenReturn(new UploadPartResult());
+
+        assertThrows(S3StreamingUploader.TooLargeException.class, () -> uploader.upload(
+                new ByteArrayInputStream(bytes(PART_SIZE + 10)), "products/c.jpg", "image/jpeg", PART_SIZE + 5));
+
+        verify(amazonS3).abortMultipartUpload(any());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+    }
+
+    @Test
+    void bufferIsReturnedToPoolAfterFailure() throws Exception {
+        when(amazonS3.putObject(any(PutObjectRequest.class))).thenThrow(new IllegalStateException("S3 недоступен"));
+        assertThrows(IllegalStateException.class, () -> uploader.upload(
+                new ByteArrayInputStream(bytes(10)), "products/d.jpg", "image/jpeg", 100));
+
+        // Пул из одного буфера: вторая загрузка не дождалась бы его
+        when(amazonS3.putObject(any(PutObjectRequest.class))).thenReturn(new PutObjectResult());
+        assertEquals(10, uploader.upload(new ByteArrayInputStream(bytes(10)), "products/d.jpg",
+                "image/jpeg", 100).size());
+    }
+
+    private static InitiateMultipartUploadResult initiated() {
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId("upload-1");
+        return result;
+    }
+
+    private static InputStream trickle(byte[] data) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static String md5(byte[] data) throws Exception {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data));
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
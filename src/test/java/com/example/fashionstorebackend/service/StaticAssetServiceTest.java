@@ -0,0 +1,116 @@
+package com.example.fashionstorebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Индекс сборки фронтенда: выбор сжатой копии, index.html в памяти, большие файлы с диска
+class StaticAssetServiceTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path extractDir;
+
+    private StaticAssetService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] index = "<!doctype html><script src=\"/assets/app-1a2b.js\"></script>".getBytes(StandardCharsets.UTF_8);
+        Files.write(root.resolve("index.html"), index);
+        Files.write(root.resolve("index.html.gz"), gzip(index));
+
+        Path assets = Files.createDirectories(root.resolve("assets"));
+        byte[] script = "console.log('палома');".repeat(4000).getBytes(StandardCharsets.UTF_8);
+        Files.write(assets.resolve("app-1a2b.js"), script);
+        Files.write(assets.resolve("app-1a2b.js.gz"), gzip(script));
+        Files.write(assets.resolve("app-1a2b.js.br"), new byte[]{1, 2, 3});
+        Files.write(assets.resolve("logo-9f8e.svg"), "<svg/>".getBytes(StandardCharsets.UTF_8));
+
+        service = new StaticAssetService(root.toUri().toString(), 48, extractDir.toString());
+        service.load();
+    }
+
+    @Test
+    void bestAcceptedEncodingIsSelected() {
+        StaticAssetService.Asset script = service.asset("app-1a2b.js");
+
+        assertEquals("br", StaticAssetService.select(script, "gzip, deflate, br").encoding());
+        assertEquals("gzip", StaticAssetService.select(script, "gzip, br;q=0").encoding());
+        assertEquals("br", StaticAssetService.select(script, "*").encoding());
+        assertNull(StaticAssetService.select(script, null).encoding());
+        assertNull(StaticAssetService.select(script, "identity").encoding());
+        assertTrue(script.isEncoded());
+        assertEquals("text/javascript;charset=UTF-8", script.contentType());
+        assertEquals(Set.of("gzip", "deflate"), StaticAssetService.acceptedEncodings("gzip;q=0.8, deflate, br;q=0"));
+    }
+
+    @Test
+    void indexIsKeptInMemoryWithPerEncodingEtags() {
+        StaticAssetService.Asset index = service.index();
+
+        StaticAssetService.Variant plain = StaticAssetService.select(index, null);
+        StaticAssetService.Variant gzip = StaticAssetService.select(index, "gzip");
+        assertNotNull(plain.data());
+        assertNull(plain.file());
+        assertEquals("gzip", gzip.encoding());
+        assertNotEquals(plain.etag(), gzip.etag());
+        assertTrue(index.contentType().startsWith("text/html"));
+    }
+
+    @Test
+    void largeAssetsAreServedFromFileSmallFromMemory() throws IOException {
+        StaticAssetService.Variant script = StaticAssetService.select(service.asset("app-1a2b.js"), null);
+        StaticAssetService.Variant logo = StaticAssetService.select(service.asset("logo-9f8e.svg"), "br");
+
+        assertNotNull(script.file());
+        assertArrayEquals(Files.readAllBytes(root.resolve("assets/app-1a2b.js")), Files.readAllBytes(script.file()));
+        assertEquals(Files.size(script.file()), script.size());
+        assertNotNull(logo.data());
+        assertNull(logo.encoding());
+        assertFalse(service.asset("logo-9f8e.svg").isEncoded());
+        assertNull(service.asset("app-1a2b.js.gz"));
+        assertNull(service.asset("missing.js"));
+    }
+
+    @Test
+    void missingAssetsDirectoryIsNotAnError(@TempDir Path empty) throws IOException {
+        Files.writeString(empty.resolve("index.html"), "<!doctype html>");
+        StaticAssetService withoutAssets = new StaticAssetService(empty.toUri().toString(), 48, extractDir.toString());
+
+        withoutAssets.load();
+
+        assertNotNull(withoutAssets.index());
+        assertNull(withoutAssets.asset("app-1a2b.js"));
+
+        // Как в тестах и при запуске без сборки фронтенда: classpath:/static/ без assets/
+        StaticAssetService classpath = new StaticAssetService("classpath:/static/", 48, extractDir.toString());
+        classpath.load();
+        assertNull(classpath.asset("app-1a2b.js"));
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}